@@ -0,0 +1,218 @@
+// src/controller/AsyncController.java
+package controller;
+
+import model.*;
+
+import javax.swing.*;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Questa classe offre una versione asincrona delle operazioni del Controller e del BoardManager.
+ * Ogni operazione viene eseguita su un thread virtuale, così l'Event Dispatch Thread di Swing
+ * non resta mai bloccato in attesa del database.
+ * I CompletableFuture restituiti vengono completati sull'Event Dispatch Thread (tramite SwingUtilities.invokeLater),
+ * quindi le azioni concatenate con thenAccept, whenComplete ecc. possono aggiornare direttamente i componenti grafici.
+ */
+public class AsyncController implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(AsyncController.class.getName());
+
+    private final Controller controller;
+    private final ExecutorService ioExecutor;
+    private final Executor edtExecutor;
+
+    /**
+     * Costruttore dell'AsyncController.
+     * Le operazioni sul database vengono eseguite su un thread virtuale per ogni richiesta.
+     * @param controller il controller sincrono da usare
+     */
+    public AsyncController(Controller controller) {
+        this(controller, Executors.newVirtualThreadPerTaskExecutor(), SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Costruttore completo, utile per sostituire gli executor.
+     * @param controller il controller sincrono da usare
+     * @param ioExecutor l'executor su cui eseguire le operazioni sul database
+     * @param edtExecutor l'executor su cui completare i risultati (di norma l'Event Dispatch Thread)
+     */
+    public AsyncController(Controller controller, ExecutorService ioExecutor, Executor edtExecutor) {
+        this.controller = controller;
+        this.ioExecutor = ioExecutor;
+        this.edtExecutor = edtExecutor;
+    }
+
+    /**
+     * Esegue un'operazione fuori dall'Event Dispatch Thread e ne riporta il risultato sull'Event Dispatch Thread.
+     * Gli errori vengono registrati nel log e propagati al future restituito.
+     * @param operazione l'operazione da eseguire
+     * @param <T> il tipo del risultato
+     * @return un future completato sull'Event Dispatch Thread
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> operazione) {
+        CompletableFuture<T> risultato = new CompletableFuture<>();
+        CompletableFuture.supplyAsync(operazione, ioExecutor).whenComplete((valore, errore) -> {
+            if (errore != null) {
+                logger.log(Level.SEVERE, "Errore durante un'operazione asincrona: " + errore.getMessage(), errore); //NOSONAR
+            }
+            edtExecutor.execute(() -> {
+                if (errore != null) {
+                    risultato.completeExceptionally(errore);
+                } else {
+                    risultato.complete(valore);
+                }
+            });
+        });
+        return risultato;
+    }
+
+    /**
+     * Come supply, per operazioni che non restituiscono un risultato.
+     * @param operazione l'operazione da eseguire
+     * @return un future completato sull'Event Dispatch Thread
+     */
+    public CompletableFuture<Void> run(Runnable operazione) {
+        return supply(() -> {
+            operazione.run();
+            return null;
+        });
+    }
+
+    /**
+     * Recupera in modo asincrono i ToDo di una bacheca.
+     * @param board la bacheca di cui si vogliono ottenere i ToDo
+     * @return un future con la lista dei ToDo della bacheca
+     */
+    public CompletableFuture<List<ToDo>> getToDo(Board board) {
+        return supply(() -> controller.getToDo(board));
+    }
+
+    /**
+     * Recupera in modo asincrono una pagina dei ToDo di una bacheca.
+     * @param board la bacheca di cui si vogliono ottenere i ToDo
+     * @param dopo il cursore della pagina precedente, o null per la prima pagina
+     * @param dimensione il numero massimo di ToDo della pagina
+     * @return un future con la pagina di ToDo
+     */
+    public CompletableFuture<PaginaToDo> getPaginaToDo(Board board, PaginaToDo.Cursore dopo, int dimensione) {
+        return supply(() -> controller.getPaginaToDo(board, dopo, dimensione));
+    }
+
+    /**
+     * Carica in modo asincrono descrizione, URL, immagine e utente creatore di un ToDo caricato come riepilogo.
+     * @param todo il ToDo da completare
+     * @return un future con lo stesso ToDo, completato, o con null se il ToDo non esiste più
+     */
+    public CompletableFuture<ToDo> loadToDoDetails(ToDo todo) {
+        return supply(() -> controller.loadToDoDetails(todo) ? todo : null);
+    }
+
+    /**
+     * Carica in modo asincrono tutte le bacheche di un utente con i relativi ToDo.
+     * @param username il nome dell'utente di cui caricare la dashboard
+     * @return un future con le bacheche dell'utente
+     */
+    public CompletableFuture<List<Board>> loadDashboard(String username) {
+        return supply(() -> controller.loadDashboard(username));
+    }
+
+    /**
+     * Crea in modo asincrono un nuovo ToDo.
+     * @param todo il ToDo da creare
+     * @return un future completato al termine del salvataggio
+     */
+    public CompletableFuture<Void> createToDo(ToDo todo) {
+        return run(() -> controller.createToDo(todo));
+    }
+
+    /**
+     * Aggiorna in modo asincrono un ToDo esistente.
+     * @param todo il ToDo da aggiornare
+     * @return un future con l'esito del salvataggio
+     */
+    public CompletableFuture<RisultatoAggiornamento<ToDo>> updateToDo(ToDo todo) {
+        return supply(() -> controller.updateToDo(todo));
+    }
+
+    /**
+     * Elimina in modo asincrono un ToDo.
+     * @param todo il ToDo da eliminare
+     * @return un future completato al termine dell'eliminazione
+     */
+    public CompletableFuture<Void> deleteToDo(ToDo todo) {
+        return run(() -> controller.deleteToDo(todo));
+    }
+
+    /**
+     * Segna in modo asincrono tutti i ToDo di una bacheca come completati.
+     * @param boardId l'ID della bacheca
+     * @return un future completato al termine dell'aggiornamento
+     */
+    public CompletableFuture<Void> markAllToDosAsCompletedByBoardId(int boardId) {
+        return run(() -> controller.markAllToDosAsCompletedByBoardId(boardId));
+    }
+
+    /**
+     * Aggiunge in modo asincrono una nuova bacheca.
+     * @param board la bacheca da aggiungere
+     * @return un future completato al termine del salvataggio
+     */
+    public CompletableFuture<Void> addBoard(Board board) {
+        return run(() -> controller.addBoard(board));
+    }
+
+    /**
+     * Elimina in modo asincrono una bacheca con tutti i suoi ToDo.
+     * @param boardId l'ID della bacheca da eliminare
+     * @return un future con il numero di righe eliminate, o null se l'eliminazione non è riuscita
+     */
+    public CompletableFuture<RisultatoEliminazione> deleteBoard(int boardId) {
+        return supply(() -> controller.getBoardController().deleteBoard(boardId));
+    }
+
+    /**
+     * Elimina in modo asincrono tutte le bacheche di un utente con i relativi ToDo.
+     * @param userId l'ID dell'utente
+     * @return un future con il numero di righe eliminate, o null se l'eliminazione non è riuscita
+     */
+    public CompletableFuture<RisultatoEliminazione> deleteAllBoardsByUserId(int userId) {
+        return supply(() -> controller.getBoardController().deleteAllBoardsByUserId(userId));
+    }
+
+    /**
+     * Condivide in modo asincrono un ToDo con un altro utente.
+     * @param todo il ToDo da condividere
+     * @param nomeBachecaOriginale il nome della bacheca del ToDo, usato anche nel destinatario
+     * @param destinatarioUsername il nome dell'utente destinatario
+     * @return un future con l'esito della condivisione
+     */
+    public CompletableFuture<EsitoCondivisione> condividiToDo(ToDo todo, String nomeBachecaOriginale, String destinatarioUsername) {
+        return supply(() -> controller.getBoardController().condividiToDo(todo, nomeBachecaOriginale, destinatarioUsername));
+    }
+
+    /**
+     * Condivide in modo asincrono più ToDo con più utenti, in un'unica operazione.
+     * @param idToDos gli ID dei ToDo da condividere
+     * @param destinatari i nomi utente dei destinatari
+     * @return un future con l'esito per ogni destinatario
+     */
+    public CompletableFuture<Map<String, EsitoCondivisione>> condividiToDos(Collection<Integer> idToDos, Collection<String> destinatari) {
+        return supply(() -> controller.getBoardController().condividiToDos(idToDos, destinatari));
+    }
+
+    /**
+     * Chiude l'executor delle operazioni sul database; le operazioni già avviate vengono portate a termine.
+     */
+    @Override
+    public void close() {
+        ioExecutor.shutdown();
+    }
+}
@@ -17,6 +17,7 @@ public class Controller { //Definizione della classe Controller
     private final BoardManager boardManager; //Gestore delle bacheche
     private final UtenteManager utenteManager; //Gestore degli utenti  (dipendenza da UtenteManager)
     private Utente utenteLoggato; //Utente appena loggato
+    private AsyncController asyncController; //Versione asincrona del controller, creata al primo utilizzo
     private static final Logger logger = Logger.getLogger(Controller.class.getName());
     public Controller(UtenteManager utenteManager, BoardManager boardManager) { //Costruttore del Controller
         this.utenteManager = utenteManager; //Inizializza il gestore degli utenti this.utenteManager indica il campo della classe  = utenteManager // parametro del costruttore
@@ -110,6 +111,36 @@ public class Controller { //Definizione della classe Controller
         }
         return boardManager.getToDosForBoard(board.getId()); // Restituisce la lista dei ToDo associati alla bacheca
     }
+    /** Questo metodo serve per ottenere una pagina dei ToDo associati a una bacheca.
+     * * Utilizza il gestore delle bacheche per leggere i ToDo ordinati per posizione, a partire dal cursore indicato.
+     * @param board la bacheca di cui si vogliono ottenere i ToDo
+     * @param dopo il cursore della pagina precedente, o null per la prima pagina
+     * @param dimensione il numero massimo di ToDo della pagina
+     * @return la pagina di ToDo, vuota se la bacheca è null
+     */
+    public PaginaToDo getPaginaToDo(Board board, PaginaToDo.Cursore dopo, int dimensione) { //Metodo per ottenere una pagina di ToDo di una bacheca
+        if (board == null) {// Controlla se la bacheca è null
+            logger.severe("Errore: il Board passato è null.");
+            return new PaginaToDo(new ArrayList<>(), null);
+        }
+        return boardManager.getPaginaToDo(board.getId(), dopo, dimensione); // Restituisce la pagina richiesta
+    }
+    /** Questo metodo serve per completare un ToDo caricato come riepilogo.
+     * * Utilizza il gestore delle bacheche per caricare descrizione, URL, immagine e utente creatore del ToDo.
+     * @param todo il ToDo da completare
+     * @return true se il ToDo è completo
+     */
+    public boolean loadToDoDetails(ToDo todo) { //Metodo per caricare i dettagli di un ToDo
+        return boardManager.caricaDettagli(todo); // Completa il ToDo tramite il gestore delle bacheche
+    }
+    /** Questo metodo serve per caricare la dashboard di un utente.
+     * * Utilizza il gestore delle bacheche per ottenere tutte le bacheche dell'utente con i relativi ToDo già caricati.
+     * @param username il nome dell'utente di cui caricare la dashboard
+     * @return la lista delle bacheche con i ToDo popolati
+     */
+    public List<Board> loadDashboard(String username) { //Metodo per caricare bacheche e ToDo di un utente
+        return boardManager.loadDashboard(username); // Restituisce le bacheche con i ToDo associati
+    }
 /** Questo metodo serve a segnare un ToDo come completato.
      * * Utilizza il gestore delle bacheche per aggiornare lo stato del ToDo specificato a COMPLETATO.
      * @param todo il ToDo da segnare come completato
@@ -121,10 +152,12 @@ public class Controller { //Definizione della classe Controller
 
     /** Questo metodo serve per aggiornare un ToDo esistente.
      * * Utilizza il gestore delle bacheche per aggiornare le informazioni del ToDo specificato.
+     * Se il ToDo è stato modificato da un altro utente e le modifiche non si possono unire, restituisce un conflitto.
      * @param todo il ToDo da aggiornare
+     * @return l'esito dell'aggiornamento
      */
-    public void updateToDo(ToDo todo) { //Metodo per aggiornare un ToDo
-        boardManager.updateToDo(todo);// Aggiorna il ToDo tramite il gestore delle bacheche
+    public RisultatoAggiornamento<ToDo> updateToDo(ToDo todo) { //Metodo per aggiornare un ToDo
+        return boardManager.updateToDo(todo);// Aggiorna il ToDo tramite il gestore delle bacheche
     }
 
 
@@ -150,6 +183,19 @@ public class Controller { //Definizione della classe Controller
         return this.boardManager; // Restituisce il gestore delle bacheche
     }
 
+    /**
+     * Questo metodo restituisce la versione asincrona del Controller.
+     * * Le operazioni dell'AsyncController vengono eseguite fuori dall'Event Dispatch Thread
+     * e i risultati vengono riportati sull'Event Dispatch Thread, così la GUI non si blocca in attesa del database.
+     * @return l'AsyncController associato a questo Controller
+     */
+    public synchronized AsyncController getAsyncController() { //Metodo per ottenere il controller asincrono
+        if (asyncController == null) {
+            asyncController = new AsyncController(this); // Creato solo al primo utilizzo
+        }
+        return asyncController; // Restituisce il controller asincrono
+    }
+
     /**
      * Questo metodo serve per segnare tutti i ToDo di una bacheca come completati.
      * * Utilizza il gestore delle bacheche per aggiornare lo stato di tutti i ToDo della bacheca specificata a COMPLETATO.
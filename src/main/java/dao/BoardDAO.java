@@ -2,13 +2,16 @@
 package dao;
 
 import model.Board;
+import model.RisultatoAggiornamento;
+import model.RisultatoEliminazione;
 import java.util.List;
 /** * Interfaccia per la gestione delle operazioni di creazione, lettura, aggiornamento ed eliminazione(CRUD) sulle bacheche (Board).
  * Definisce i metodi per aggiungere, recuperare, aggiornare ed eliminare bacheche.
  */
 public interface BoardDAO {
     /**
-     * Aggiunge una nuova bacheca al sistema.
+     * Aggiunge una nuova bacheca al sistema, o trova quella con lo stesso titolo dello stesso utente,
+     * e ne imposta l'ID sulla bacheca passata.
      * @param board La bacheca da aggiungere.
      */
     void addBoard(Board board); // Aggiunge una nuova bacheca
@@ -24,10 +27,11 @@ public interface BoardDAO {
      */
     List<Board> getAllBoards();// Recupera tutte le bacheche
     /**
-     * Aggiorna una bacheca esistente.
+     * Aggiorna una bacheca esistente, se nessun altro l'ha aggiornata dopo la lettura.
      * @param board La bacheca con i dati aggiornati.
+     * @return L'esito dell'aggiornamento; in caso di conflitto contiene la bacheca attuale.
      */
-    void updateBoard(Board board);// Aggiorna una bacheca esistente
+    RisultatoAggiornamento<Board> updateBoard(Board board);// Aggiorna una bacheca esistente
     /**
      * Elimina una bacheca per ID.
      * @param id L'ID della bacheca da eliminare.
@@ -61,6 +65,20 @@ public interface BoardDAO {
      * @return Una lista di bacheche associate all'ID utente specificato.
      */
     void deleteAllBoardsByUserId(int userId); // New method for "Cancella" all boards
+
+    /**
+     * Elimina una bacheca e tutti i suoi ToDo in un'unica transazione.
+     * @param id L'ID della bacheca da eliminare.
+     * @return Il numero di bacheche e di ToDo eliminati, o null se l'eliminazione non è riuscita.
+     */
+    RisultatoEliminazione deleteBoardCascade(int id); // Elimina bacheca e ToDo con un'istruzione per tabella
+
+    /**
+     * Elimina tutte le bacheche di un utente e tutti i loro ToDo in un'unica transazione.
+     * @param userId L'ID dell'utente di cui eliminare le bacheche.
+     * @return Il numero di bacheche e di ToDo eliminati, o null se l'eliminazione non è riuscita.
+     */
+    RisultatoEliminazione deleteAllBoardsCascadeByUserId(int userId); // Elimina bacheche e ToDo dell'utente
 }
 /*In questo caso le interfacce sono utilizzate per:
  1)definire un insieme di regole che le classi concrete devono implementare.
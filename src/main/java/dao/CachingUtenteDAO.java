@@ -0,0 +1,256 @@
+// src/dao/CachingUtenteDAO.java
+package dao;
+
+import model.Utente;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decoratore di UtenteDAO che mantiene in memoria gli utenti letti più di recente.
+ * Le letture per ID e per nome utente passano prima dalla cache (read-through),
+ * le scritture vengono inoltrate alla DAO decorata e aggiornano o invalidano la cache (write-through).
+ * La cache ha un numero massimo di elementi, oltre il quale viene scartato l'utente usato meno di recente (LRU),
+ * e ogni elemento scade dopo un tempo di vita configurabile.
+ * Può decorare qualunque implementazione di UtenteDAO ed è sicura per l'uso da più thread.
+ * La cache conserva solo i dati dell'utente e restituisce ogni volta un nuovo oggetto Utente,
+ * così le modifiche fatte da un chiamante non si propagano agli altri.
+ */
+public class CachingUtenteDAO implements UtenteDAO {
+    /**
+     * Numero massimo di utenti in cache, se non diversamente configurato.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1_000;
+    /**
+     * Tempo di vita di un utente in cache, in millisecondi, se non diversamente configurato.
+     */
+    public static final long DEFAULT_TTL_MILLIS = 5 * 60 * 1000L;
+
+    private final UtenteDAO delegate;
+    private final long ttlMillis;
+    private final Map<Integer, Entry> byId;
+    private final Map<String, Integer> idByUsername = new HashMap<>();
+    private long hits;
+    private long misses;
+    /**
+     * Contatore delle invalidazioni: una lettura dalla DAO decorata viene messa in cache solo se
+     * nel frattempo nessuna scrittura ha invalidato la cache.
+     */
+    private long generazione;
+
+    /**
+     * Costruttore con i limiti di default.
+     * @param delegate la DAO da decorare
+     */
+    public CachingUtenteDAO(UtenteDAO delegate) {
+        this(delegate, DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * Costruttore completo.
+     * @param delegate la DAO da decorare
+     * @param maxEntries il numero massimo di utenti in cache
+     * @param ttlMillis il tempo di vita di ogni utente in cache, in millisecondi
+     */
+    public CachingUtenteDAO(UtenteDAO delegate, int maxEntries, long ttlMillis) {
+        if (maxEntries <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("maxEntries e ttlMillis devono essere positivi.");
+        }
+        this.delegate = delegate;
+        this.ttlMillis = ttlMillis;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() > maxEntries) {
+                    idByUsername.remove(eldest.getValue().username);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public void addUtente(Utente utente) {
+        delegate.addUtente(utente);
+        synchronized (this) {
+            put(utente);
+        }
+    }
+
+    @Override
+    public Utente getUtenteById(int id) {
+        long letta;
+        synchronized (this) {
+            Utente cached = lookup(byId.get(id));
+            if (cached != null) {
+                return cached;
+            }
+            letta = generazione;
+        }
+        Utente utente = delegate.getUtenteById(id);
+        putSeValida(utente, letta);
+        return utente;
+    }
+
+    @Override
+    public Utente getUtenteByUsername(String username) {
+        long letta;
+        synchronized (this) {
+            Integer id = idByUsername.get(username);
+            Utente cached = lookup(id != null ? byId.get(id) : null);
+            if (cached != null) {
+                return cached;
+            }
+            letta = generazione;
+        }
+        Utente utente = delegate.getUtenteByUsername(username);
+        putSeValida(utente, letta);
+        return utente;
+    }
+
+    @Override
+    public List<Utente> getAllUtenti() {
+        return delegate.getAllUtenti();
+    }
+
+    @Override
+    public void updateUtente(Utente utente) {
+        delegate.updateUtente(utente);
+        synchronized (this) {
+            Integer id = idByUsername.get(utente.getUsername());
+            if (id != null) {
+                remove(id);
+            }
+            if (utente.getId() > 0) {
+                remove(utente.getId());
+            }
+        }
+    }
+
+    @Override
+    public void deleteUtenteById(int id) {
+        delegate.deleteUtenteById(id);
+        synchronized (this) {
+            remove(id);
+        }
+    }
+
+    /**
+     * Svuota completamente la cache, ad esempio dopo modifiche fatte direttamente sul database.
+     */
+    public synchronized void invalidateAll() {
+        generazione++;
+        byId.clear();
+        idByUsername.clear();
+    }
+
+    /**
+     * Questo metodo restituisce quante letture sono state servite dalla cache.
+     * @return il numero di hit
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Questo metodo restituisce quante letture hanno dovuto interrogare la DAO decorata.
+     * @return il numero di miss
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Questo metodo restituisce il numero di utenti attualmente in cache.
+     * @return il numero di utenti in cache
+     */
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CachingUtenteDAO[utenti=" + byId.size() + ", hit=" + hits + ", miss=" + misses + "]";
+    }
+
+    /**
+     * Restituisce l'utente di un elemento ancora valido e conta hit e miss; scarta gli elementi scaduti.
+     * Va chiamato tenendo il lock.
+     */
+    private Utente lookup(Entry entry) {
+        if (entry != null) {
+            if (System.currentTimeMillis() < entry.expiresAt) {
+                hits++;
+                return entry.toUtente();
+            }
+            remove(entry.id);
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Inserisce nella cache un utente letto dalla DAO decorata, a meno che una scrittura
+     * non abbia invalidato la cache dopo l'inizio della lettura.
+     * @param letta la generazione della cache all'inizio della lettura
+     */
+    private synchronized void putSeValida(Utente utente, long letta) {
+        if (generazione == letta) {
+            put(utente);
+        }
+    }
+
+    /**
+     * Inserisce una copia dei dati di un utente nella cache, se ha già un ID assegnato. Va chiamato tenendo il lock.
+     */
+    private void put(Utente utente) {
+        if (utente == null || utente.getId() <= 0) {
+            return;
+        }
+        Entry previous = byId.put(utente.getId(), new Entry(utente, System.currentTimeMillis() + ttlMillis));
+        if (previous != null && !previous.username.equals(utente.getUsername())) {
+            idByUsername.remove(previous.username);
+        }
+        idByUsername.put(utente.getUsername(), utente.getId());
+    }
+
+    /**
+     * Rimuove un utente da entrambi gli indici e invalida le letture in corso. Va chiamato tenendo il lock.
+     */
+    private void remove(int id) {
+        generazione++;
+        Entry entry = byId.remove(id);
+        if (entry != null) {
+            idByUsername.remove(entry.username);
+        }
+    }
+
+    /**
+     * Elemento della cache: i dati dell'utente, immutabili, e l'istante in cui scade.
+     */
+    private static final class Entry {
+        private final int id;
+        private final String username;
+        private final String password;
+        private final long expiresAt;
+
+        private Entry(Utente utente, long expiresAt) {
+            this.id = utente.getId();
+            this.username = utente.getUsername();
+            this.password = utente.getPassword();
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Crea un nuovo Utente con i dati dell'elemento, da restituire al chiamante.
+         */
+        private Utente toUtente() {
+            Utente utente = new Utente(username, password);
+            utente.setId(id);
+            return utente;
+        }
+    }
+}
@@ -1,8 +1,16 @@
 // src/dao/ToDoDAO.java
 package dao;
 
+import model.EsitoCondivisione;
+import model.PaginaToDo;
+import model.RisultatoAggiornamento;
 import model.ToDo;
+import model.ToDoSummary;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 /**
   * Interfaccia per la gestione delle operazioni sui ToDo.
   * Definisce i metodi per aggiungere, recuperare, aggiornare ed eliminare ToDo,
@@ -32,15 +40,43 @@ public interface ToDoDAO { // Interfaccia per la gestione delle operazioni sui T
      */
     List<ToDo> getAllToDos(); // Recupera tutti i ToDo
     /**
-     * Aggiorna un ToDo esistente.
+     * Legge tutti i ToDo presenti nel sistema come stream, senza tenerli tutti in memoria:
+     * le righe vengono lette dal database a blocchi man mano che lo stream le consuma.
+     * Lo stream tiene occupata una connessione finché non viene chiuso, quindi va sempre usato
+     * in un try-with-resources.
+     * @return Uno stream di tutti i ToDo, da chiudere al termine.
+     * @throws IllegalStateException se i ToDo non possono essere letti
+     */
+    Stream<ToDo> streamAllToDos(); // Legge tutti i ToDo a blocchi
+    /**
+     * Aggiorna un ToDo esistente, scrivendo solo i campi modificati dopo il caricamento,
+     * a condizione che nel frattempo nessun altro abbia aggiornato la stessa riga.
      * @param todo Il ToDo con i dati aggiornati.
+     * @return L'esito dell'aggiornamento; in caso di conflitto contiene il ToDo attuale.
      */
-    void updateToDo(ToDo todo); // Aggiorna un ToDo esistente
+    RisultatoAggiornamento<ToDo> updateToDo(ToDo todo); // Aggiorna un ToDo esistente
     /**
      * Elimina un ToDo per ID.
      * @param id L'ID del ToDo da eliminare.
      */
     void deleteToDo(int id);// Elimina un ToDo per ID
+    /**
+     * Aggiunge più ToDo in un'unica operazione, impostando su ciascuno l'ID generato.
+     * @param todos I ToDo da aggiungere.
+     */
+    void addToDos(List<ToDo> todos); // Aggiunge più ToDo insieme
+    /**
+     * Aggiorna più ToDo in un'unica operazione, saltando quelli aggiornati nel frattempo da altri.
+     * @param todos I ToDo con i dati aggiornati.
+     * @return L'esito: in caso di CONFLITTO getAttuale contiene i ToDo non aggiornati, con le modifiche ancora da salvare;
+     *         ERRORE se l'operazione è fallita e nessun ToDo è stato aggiornato.
+     */
+    RisultatoAggiornamento<List<ToDo>> updateToDos(List<ToDo> todos); // Aggiorna più ToDo insieme
+    /**
+     * Elimina più ToDo in un'unica operazione.
+     * @param ids Gli ID dei ToDo da eliminare.
+     */
+    void deleteToDos(int[] ids); // Elimina più ToDo insieme
     /**
      * Recupera tutti i ToDo associati a un ID di bacheca specifico.
      * @param boardId L'ID della bacheca per cui recuperare i ToDo.
@@ -49,7 +85,82 @@ public interface ToDoDAO { // Interfaccia per la gestione delle operazioni sui T
     List<ToDo> getToDosByBoardId(int boardId);// Recupera i ToDo per ID bacheca
 
     /**
-     * Segna tutti i ToDo di una bacheca come completati.
+     * Recupera i riepiloghi dei ToDo di una bacheca, con le sole colonne mostrate nelle liste.
+     * @param boardId L'ID della bacheca per cui recuperare i ToDo.
+     * @return Una lista di riepiloghi dei ToDo della bacheca, o null se la lettura non è riuscita.
+     */
+    List<ToDoSummary> getToDoSummariesByBoardId(int boardId); // Recupera i riepiloghi dei ToDo per ID bacheca
+
+    /**
+     * Recupera una pagina di riepiloghi dei ToDo di una bacheca, ordinati per posizione e ID,
+     * partendo subito dopo il cursore indicato.
+     * @param boardId L'ID della bacheca per cui recuperare i ToDo.
+     * @param dopo Il cursore dell'ultimo ToDo già letto, o null per partire dall'inizio.
+     * @param limite Il numero massimo di riepiloghi da restituire.
+     * @return I riepiloghi della pagina, al più limite, o null se la lettura non è riuscita.
+     */
+    List<ToDoSummary> getToDoSummaryPage(int boardId, PaginaToDo.Cursore dopo, int limite); // Recupera una pagina di riepiloghi per ID bacheca
+
+    /**
+     * Legge i riepiloghi dei primi ToDo di ogni bacheca indicata con un'unica interrogazione,
+     * passando ogni riepilogo al consumer man mano che viene letto.
+     * I riepiloghi arrivano ordinati per bacheca, posizione e ID.
+     * @param boardIds Gli ID delle bacheche da leggere.
+     * @param limitePerBacheca Il numero massimo di ToDo da leggere per ogni bacheca.
+     * @param consumer Il consumer che riceve ogni riepilogo letto.
+     * @return true se la lettura è riuscita, false in caso di errore.
+     */
+    boolean forEachToDoSummaryByBoardIds(Collection<Integer> boardIds, int limitePerBacheca, Consumer<ToDoSummary> consumer); // Legge la prima pagina dei ToDo di più bacheche
+
+    /**
+     * Carica descrizione, URL, immagine e utente creatore di un ToDo ottenuto da un riepilogo.
+     * @param todo Il ToDo da completare.
+     * @return true se il ToDo è stato trovato e completato.
+     */
+    boolean loadToDoDetails(ToDo todo); // Completa un ToDo caricato come riepilogo
+
+    /**
+     * Condivide un ToDo con un utente, facendolo comparire nella sua bacheca con il titolo indicato,
+     * creata se non esiste. Il ToDo non viene copiato; se il destinatario lo ha già, non cambia nulla.
+     * @param idToDo L'ID del ToDo da condividere.
+     * @param nomeBacheca Il titolo della bacheca del destinatario.
+     * @param destinatarioUsername Il nome utente del destinatario.
+     * @return L'esito della condivisione.
+     */
+    EsitoCondivisione condividiToDo(int idToDo, String nomeBacheca, String destinatarioUsername); // Condivide un ToDo con un utente
+
+    /**
+     * Condivide più ToDo con più utenti in un'unica operazione; ogni ToDo finisce nella bacheca del destinatario
+     * con il titolo della sua bacheca, creata se non esiste. Le condivisioni già presenti non vengono duplicate.
+     * @param idToDos Gli ID dei ToDo da condividere.
+     * @param destinatari I nomi utente dei destinatari.
+     * @return L'esito della condivisione per ogni destinatario; TODO_NON_TROVATO se nessuno dei ToDo esiste.
+     */
+    Map<String, EsitoCondivisione> condividiToDos(Collection<Integer> idToDos, Collection<String> destinatari); // Condivide più ToDo con più utenti
+
+    /**
+     * Recupera i ToDo di una bacheca, eventualmente insieme a quelli condivisi in essa con il proprietario.
+     * @param boardId L'ID della bacheca.
+     * @param includiCondivisi true per includere i ToDo condivisi nella bacheca.
+     * @return I ToDo della bacheca.
+     */
+    List<ToDo> getToDosByBoardId(int boardId, boolean includiCondivisi); // Recupera i ToDo di una bacheca con le condivisioni
+    /**
+     * Recupera i ToDo condivisi con un utente.
+     * @param idUtente L'ID dell'utente destinatario.
+     * @return I ToDo condivisi con l'utente.
+     */
+    List<ToDo> getToDosCondivisiCon(int idUtente); // Recupera i ToDo condivisi con un utente
+    /**
+     * Revoca la condivisione di un ToDo in una bacheca del destinatario; il ToDo non viene eliminato.
+     * @param idToDo L'ID del ToDo condiviso.
+     * @param idBoard L'ID della bacheca del destinatario.
+     * @return true se la condivisione è stata revocata.
+     */
+    boolean revocaCondivisione(int idToDo, int idBoard); // Revoca la condivisione di un ToDo
+
+    /**
+     * Segna tutti i ToDo di una bacheca come completati, esclusi quelli condivisi nella bacheca da altri utenti.
      * @param boardId L'ID della bacheca per cui segnare i ToDo come completati.
      */
     void markAllToDosAsCompletedByBoardId(int boardId); // New method for "Completa Bacheca"
@@ -1,7 +1,7 @@
 package dao.postgresimpl; //definisce il package dao.postgresimpl
 
 import dao.*; //importa tutte le classi del package dao
-import database.DBConnection;
+import database.ConnectionPool;
 import model.*; //importa tutte le classi del package model
 import java.util.logging.Logger;
 import java.sql.*; //importa le classi necessarie per la gestione delle operazioni SQL
@@ -13,41 +13,48 @@ import java.util.List; //importa l'interfaccia List per la gestione delle liste
  */
 public class PostgresBoardDAO implements BoardDAO { // Questa classe implementa l'interfaccia BoardDAO per gestire le operazioni sulle bacheche nel database PostgreSQL
     private static final String COLUMN_ID_UTENTE = "id_utente";
-    private final Connection connection; // Connessione al database PostgreSQL
+    private final ConnectionPool pool; // Pool di connessioni al database PostgreSQL
     private static final String COLUMN_TITOLO = "titolo";
+    private static final String COLUMN_VERSION = "version";
+    // Il DO UPDATE non cambia nulla ma fa restituire da RETURNING anche la riga già esistente;
+    // xmax = 0 vale solo per le righe appena inserite.
+    private static final String UPSERT_SQL = "INSERT INTO board (titolo, id_utente) VALUES (?, ?) "
+            + "ON CONFLICT (id_utente, titolo) DO UPDATE SET titolo = EXCLUDED.titolo "
+            + "RETURNING id, version, (xmax = 0) AS inserita";
+    private static final String SELECT_BY_TITOLO_UTENTE_SQL = "SELECT id, titolo, id_utente, version FROM board WHERE titolo = ? AND id_utente = ?";
+    private static final String SELECT_BY_ID_SQL = "SELECT id, titolo, id_utente, version FROM board WHERE id = ?";
+    private static final String SELECT_BY_USERNAME_SQL = "SELECT b.id, b.titolo, b.id_utente, b.version FROM board b JOIN utente u ON u.id = b.id_utente WHERE u.username = ?";
+    private static final String UPDATE_SQL =
+            "UPDATE board SET titolo = ?, version = version + 1 WHERE id = ? AND version = ?";
     private static final Logger logger = Logger.getLogger(PostgresBoardDAO.class.getName());
-    public PostgresBoardDAO(Connection connection) { // Costruttore che accetta una connessione al database
-        this.connection = connection; // Inizializza la connessione al database
+    public PostgresBoardDAO(ConnectionPool pool) { // Costruttore che accetta il pool di connessioni al database
+        this.pool = pool; // Inizializza il pool di connessioni al database
     }
 
     @Override//Questa annotazione indica che il metodo sta implementando un metodo dell'interfaccia BoardDAO
     /**
-     * Questo metodo aggiunge una nuova board al database..
-     * @throws SQLException Se si verifica un errore durante l'inserimento della board.
-     *  Se la board esiste già, viene restituito un messaggio di log informativo
+     * Questo metodo aggiunge una nuova board al database con un'unica istruzione INSERT ... ON CONFLICT.
+     *  Se la board esiste già per lo stesso utente, viene restituito un messaggio di log informativo
      *  e l'ID della board esistente viene impostato sull'oggetto board passato come parametro.
      *  Se la board non esiste, viene inserita nel database e l'ID generato viene impostato
      *  sull'oggetto board.
-     *  Questo metodo è utile per evitare duplicati di board con lo stesso titolo per lo stesso utente.
+     *  Il vincolo univoco su (id_utente, titolo) evita i duplicati anche quando due sessioni
+     *  creano la stessa board nello stesso momento.
      * @param board La board da aggiungere al database.
      */
     public void addBoard(Board board) {
-        // controllo se esiste già una board con lo stesso titolo e id utente
-        Board existing = getBoardByTitoloAndUtente(board.getTitolo(), board.getIdUtente()); // Recupera la board esistente con lo stesso titolo e ID utente
-        if (existing != null) {
-            logger.info("La board \"" + board.getTitolo() + "\" esiste già per l'utente ID " + board.getIdUtente());
-
-            board.setId(existing.getId());//Imposta l'ID della board esistente all'oggetto board passato come parametro
-            return;
-        }
-
-        String sql = "INSERT INTO board (titolo, id_utente) VALUES (?, ?) RETURNING id"; // Query per inserire la board e restituire l'id generato
-        try (PreparedStatement stmt = this.connection.prepareStatement(sql)) {  // apre una PreparedStatement per eseguire la query
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPSERT_SQL)) {  // apre una PreparedStatement per eseguire la query
             stmt.setString(1, board.getTitolo()); // Imposta il titolo della board
             stmt.setInt(2, board.getIdUtente());// Imposta l'ID dell'utente associato alla board
-            ResultSet rs = stmt.executeQuery(); // Use executeQuery for RETURNING
-            if (rs.next()) { // Controlla se la query ha restituito un risultato
-                board.setId(rs.getInt(1)); // Imposta l'ID della board appena inserita
+            try (ResultSet rs = stmt.executeQuery()) { // Use executeQuery for RETURNING
+                if (rs.next()) { // Controlla se la query ha restituito un risultato
+                    board.setId(rs.getInt("id")); // Imposta l'ID della board inserita o già esistente
+                    board.setVersione(rs.getInt(COLUMN_VERSION));
+                    if (!rs.getBoolean("inserita")) {
+                        logger.info("La board \"" + board.getTitolo() + "\" esiste già per l'utente ID " + board.getIdUtente());
+                    }
+                }
             }
         } catch (SQLException e) { // Viene eseguito se si verifica un'eccezione durante l'esecuzione della query
             logger.severe("Errore durante l'inserimento della board: " + e.getMessage());// Stampa un messaggio di errore se si verifica un'eccezione
@@ -61,14 +68,16 @@ public class PostgresBoardDAO implements BoardDAO { // Questa classe implementa
      * @return La board trovata, o null se non esiste.
      */
     public Board getBoardByTitoloAndUtente(String titolo, int idUtente) {
-        String sql = "SELECT id, titolo, id_utente FROM board WHERE titolo = ? AND id_utente = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) { // Crea una PreparedStatement per eseguire la query
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_TITOLO_UTENTE_SQL)) { // Crea una PreparedStatement per eseguire la query
             stmt.setString(1, titolo); // Imposta il titolo della board
             stmt.setInt(2, idUtente);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
                 int idBoard = rs.getInt("id");
-                return new Board(idBoard, titolo, idUtente);
+                Board board = new Board(idBoard, titolo, idUtente);
+                board.setVersione(rs.getInt(COLUMN_VERSION));
+                return board;
             }
         } catch (SQLException e) {
             logger.severe("Errore nel recupero board per titolo e utente: " + e.getMessage());
@@ -83,8 +92,8 @@ public class PostgresBoardDAO implements BoardDAO { // Questa classe implementa
      * @return La board trovata, o null se non esiste.
      */
     public Board getBoardById(int id) {
-        String sql = "SELECT id, titolo, id_utente FROM board WHERE id = ?";
-        try (PreparedStatement stmt = this.connection.prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -92,7 +101,9 @@ public class PostgresBoardDAO implements BoardDAO { // Questa classe implementa
                 String titolo = rs.getString(COLUMN_TITOLO);
                 int idUtente = rs.getInt(COLUMN_ID_UTENTE);
 
-                return new Board(idBoard, titolo, idUtente);
+                Board board = new Board(idBoard, titolo, idUtente);
+                board.setVersione(rs.getInt(COLUMN_VERSION));
+                return board;
             }
         } catch (SQLException e) {
             logger.severe("Errore nel recupero della board per ID: " + e.getMessage());
@@ -107,29 +118,18 @@ public class PostgresBoardDAO implements BoardDAO { // Questa classe implementa
      */
     public List<Board> getBoardsByUsername(String username) {
         List<Board> boards = new ArrayList<>();
-        String userQuery = "SELECT id FROM utente WHERE username = ?";
-        String boardQuery = "SELECT id, titolo, id_utente FROM board WHERE id_utente = ?";
-        try (
-                PreparedStatement userStmt = connection.prepareStatement(userQuery);
-        ) {
-            userStmt.setString(1, username);
-            ResultSet userRs = userStmt.executeQuery();
-
-            if (userRs.next()) {
-                int userId = userRs.getInt("id");
-
-                try (PreparedStatement boardStmt = connection.prepareStatement(boardQuery)) {
-                    boardStmt.setInt(1, userId);
-                    ResultSet boardRs = boardStmt.executeQuery();
-
-                    while (boardRs.next()) {
-                        int idBoard = boardRs.getInt("id");
-                        String titolo = boardRs.getString(COLUMN_TITOLO);
-                        int idUtente = boardRs.getInt(COLUMN_ID_UTENTE);
-                        Board board = new Board(idBoard, titolo, idUtente);
-                        boards.add(board);
-                    }
-                }
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_USERNAME_SQL)) {
+            stmt.setString(1, username);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                int idBoard = rs.getInt("id");
+                String titolo = rs.getString(COLUMN_TITOLO);
+                int idUtente = rs.getInt(COLUMN_ID_UTENTE);
+                Board board = new Board(idBoard, titolo, idUtente);
+                board.setVersione(rs.getInt(COLUMN_VERSION));
+                board.setUsername(username);
+                boards.add(board);
             }
         } catch (SQLException e) {
             logger.severe("Errore durante il recupero delle board per username: " + e.getMessage());
@@ -144,14 +144,16 @@ public class PostgresBoardDAO implements BoardDAO { // Questa classe implementa
      */
     public List<Board> getAllBoards() {
         List<Board> boards = new ArrayList<>();
-        String sql = "SELECT id, titolo, id_utente FROM board";
-        try (Statement stmt = this.connection.createStatement();
+        String sql = "SELECT id, titolo, id_utente, version FROM board";
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
                 int idBoard = rs.getInt("id");
                 String titolo = rs.getString(COLUMN_TITOLO);
                 int idUtente = rs.getInt(COLUMN_ID_UTENTE);
                 Board board = new Board(idBoard, titolo, idUtente);
+                board.setVersione(rs.getInt(COLUMN_VERSION));
                 boards.add(board);
             }
         } catch (SQLException e) {
@@ -162,17 +164,38 @@ public class PostgresBoardDAO implements BoardDAO { // Questa classe implementa
 
     @Override
     /**
-     * Questo metodo aggiorna il titolo di una board nel database.
-     * @param board La board con l'ID e il nuovo titolo da aggiornare.
+     * Questo metodo aggiorna il titolo di una board nel database, solo se la versione della riga
+     * è ancora quella della board; in quel caso la versione della board viene incrementata.
+     * Se la board è stata modificata nel frattempo viene riletta e restituita come stato attuale.
+     * @param board La board con l'ID, la versione letta e il nuovo titolo da aggiornare.
+     * @return L'esito dell'aggiornamento, con la board attuale in caso di conflitto.
      */
-    public void updateBoard(Board board) {
-        String sql = "UPDATE board SET " + COLUMN_TITOLO + " = ? WHERE id = ?";
-        try (PreparedStatement stmt = this.connection.prepareStatement(sql)) {
+    public RisultatoAggiornamento<Board> updateBoard(Board board) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
             stmt.setString(1, board.getTitolo());
             stmt.setInt(2, board.getId());
-            stmt.executeUpdate();
+            stmt.setInt(3, board.getVersione());
+            if (stmt.executeUpdate() == 1) {
+                board.setVersione(board.getVersione() + 1);
+                return RisultatoAggiornamento.di(RisultatoAggiornamento.Esito.AGGIORNATO);
+            }
+            // La rilettura usa la stessa connessione: un suo errore è un ERRORE, non una board eliminata.
+            try (PreparedStatement select = conn.prepareStatement(SELECT_BY_ID_SQL)) {
+                select.setInt(1, board.getId());
+                try (ResultSet rs = select.executeQuery()) {
+                    if (!rs.next()) {
+                        return RisultatoAggiornamento.di(RisultatoAggiornamento.Esito.NON_TROVATO);
+                    }
+                    Board attuale = new Board(rs.getInt("id"), rs.getString(COLUMN_TITOLO), rs.getInt(COLUMN_ID_UTENTE));
+                    attuale.setVersione(rs.getInt(COLUMN_VERSION));
+                    logger.info("Conflitto di versione sulla board " + board.getId());
+                    return new RisultatoAggiornamento<>(RisultatoAggiornamento.Esito.CONFLITTO, attuale);
+                }
+            }
         } catch (SQLException e) {
             logger.severe("Errore durante l'aggiornamento della board: " + e.getMessage());
+            return RisultatoAggiornamento.di(RisultatoAggiornamento.Esito.ERRORE);
         }
     }
 
@@ -183,7 +206,8 @@ public class PostgresBoardDAO implements BoardDAO { // Questa classe implementa
      */
     public void deleteBoard(int id) {
         String sql = "DELETE FROM board WHERE id = ?";
-        try (PreparedStatement stmt = this.connection.prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             stmt.executeUpdate();
         } catch (SQLException e) {
@@ -199,10 +223,11 @@ public class PostgresBoardDAO implements BoardDAO { // Questa classe implementa
      */
     public List<Board> getBoardsByBachecaId(int idUtente) { // Renamed parameter for clarity
         List<Board> boards = new ArrayList<>();
-        String sql = "SELECT id, titolo, id_utente FROM board WHERE id_utente = ?";
+        String sql = "SELECT id, titolo, id_utente, version FROM board WHERE id_utente = ?";
         //  String sql = "SELECT * FROM board WHERE id_utente = ?";
 
-        try (PreparedStatement stmt = this.connection.prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, idUtente);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -210,6 +235,7 @@ public class PostgresBoardDAO implements BoardDAO { // Questa classe implementa
                 String titolo = rs.getString(COLUMN_TITOLO);
                 int idUtenteDb = rs.getInt(COLUMN_ID_UTENTE);
                 Board board = new Board(idBoard, titolo, idUtenteDb);
+                board.setVersione(rs.getInt(COLUMN_VERSION));
                 boards.add(board);
             }
         } catch (SQLException e) {
@@ -227,11 +253,66 @@ public class PostgresBoardDAO implements BoardDAO { // Questa classe implementa
      */
     public void deleteAllBoardsByUserId(int userId) {
         String sql = "DELETE FROM board WHERE id_utente = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, userId);
             stmt.executeUpdate();
         } catch (SQLException e) {
             logger.severe("Errore durante l'eliminazione di tutte le board per utente: " + e.getMessage());
         }
     }
+
+    @Override
+    /**
+     * Questo metodo elimina una board e tutti i suoi ToDo in un'unica transazione,
+     * con una sola istruzione DELETE per tabella.
+     * @param id L'ID della board da eliminare.
+     * @return Il numero di board e di ToDo eliminati; zero e zero in caso di errore.
+     */
+    public RisultatoEliminazione deleteBoardCascade(int id) {
+        String todoSql = "DELETE FROM todo WHERE id_board = ?";
+        String boardSql = "DELETE FROM board WHERE id = ?";
+        return deleteCascade(id, todoSql, boardSql);
+    }
+
+    @Override
+    /**
+     * Questo metodo elimina tutte le board di un utente e tutti i loro ToDo in un'unica transazione,
+     * con una sola istruzione DELETE per tabella.
+     * @param userId L'ID dell'utente di cui eliminare le board.
+     * @return Il numero di board e di ToDo eliminati; zero e zero in caso di errore.
+     */
+    public RisultatoEliminazione deleteAllBoardsCascadeByUserId(int userId) {
+        String todoSql = "DELETE FROM todo WHERE id_board IN (SELECT id FROM board WHERE id_utente = ?)";
+        String boardSql = "DELETE FROM board WHERE id_utente = ?";
+        return deleteCascade(userId, todoSql, boardSql);
+    }
+
+    /**
+     * Esegue in una transazione la cancellazione dei ToDo e poi delle board, con lo stesso parametro.
+     * @param param il parametro di entrambe le istruzioni (ID della board o dell'utente)
+     * @param todoSql l'istruzione che elimina i ToDo
+     * @param boardSql l'istruzione che elimina le board
+     * @return il numero di righe eliminate per ciascuna tabella, o null se la transazione è fallita
+     */
+    private RisultatoEliminazione deleteCascade(int param, String todoSql, String boardSql) {
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement todoStmt = conn.prepareStatement(todoSql);
+                 PreparedStatement boardStmt = conn.prepareStatement(boardSql)) {
+                todoStmt.setInt(1, param);
+                int todoEliminati = todoStmt.executeUpdate();
+                boardStmt.setInt(1, param);
+                int boardEliminate = boardStmt.executeUpdate();
+                conn.commit();
+                return new RisultatoEliminazione(boardEliminate, todoEliminati);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.severe("Errore durante l'eliminazione a cascata delle board: " + e.getMessage());
+        }
+        return null;
+    }
 }
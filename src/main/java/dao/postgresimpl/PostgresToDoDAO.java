@@ -2,60 +2,263 @@
 package dao.postgresimpl;
 
 import dao.ToDoDAO;
-import database.DBConnection;
+import database.ConnectionPool;
+import model.CampoToDo;
+import model.EsitoCondivisione;
+import model.PaginaToDo;
+import model.RisultatoAggiornamento;
 import model.StatoToDo;
 import model.ToDo;
-import dao.UtenteDAO; // Import UtenteDAO
+import model.ToDoSummary;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Date;
-import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 /** * Implementazione di ToDoDAO per PostgreSQL.
  * Questa classe gestisce le operazioni di creazione, lettura, aggiornamento
  * ed eliminazione per gli oggetti ToDo nel database PostgreSQL.
  */
 public class PostgresToDoDAO implements ToDoDAO {
-    private final Connection connection;
-    private final UtenteDAO utenteDAO; // Added this
+    private final ConnectionPool pool;
     private static final Logger logger = Logger.getLogger(PostgresToDoDAO.class.getName());
-    private static final String COL_DESCRIZIONE = "descrizione";
-    private static final String COL_COLORE = "colore";
-    private static final String COL_TITOLO = "titolo";
-    private static final String COL_SCADENZA = "scadenza";
-    private static final String COL_STATO = "stato";
-    private static final String COL_POSIZIONE = "posizione";
-    private static final String COL_ID_BOARD = "id_board";
-    private static final String COL_ID_UTENTE = "id_utente";
-    private static final String COL_CONDIVISO_DA_UTENTE = "condiviso_da_utente";
-    public PostgresToDoDAO(Connection connection, UtenteDAO utenteDAO){ // Modified constructor
-        this.connection = connection;
-        this.utenteDAO = utenteDAO; // Initialize
+    /**
+     * Numero di righe inviate al database in un singolo batch, se non diversamente configurato.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    /**
+     * Numero di righe lette dal database a ogni giro del cursore negli stream, se non diversamente configurato.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final String INSERT_SQL = "INSERT INTO todo (titolo, descrizione, scadenza, colore, stato, url, img, posizione, id_utente, condiviso_da_utente, id_board) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    /**
+     * Testo dell'UPDATE per ogni combinazione di campi modificati, generato una sola volta,
+     * così ogni combinazione usa sempre lo stesso statement in cache nel pool.
+     */
+    private static final Map<Set<CampoToDo>, String> UPDATE_SQL_PER_CAMPI = new ConcurrentHashMap<>();
+    /**
+     * Ordinamento stabile dei ToDo di una board, servito dall'indice (id_board, posizione, id).
+     */
+    private static final String ORDER_BY = " ORDER BY t.posizione, t.id";
+    // Query usate dai metodi della DAO, definite una sola volta: il pool tiene in cache uno statement
+    // preparato per ogni testo SQL, quindi ogni query va scritta sempre nello stesso modo.
+    private static final String INSERT_RETURNING_SQL = INSERT_SQL + " RETURNING id";
+    private static final String SELECT_BY_ID_SQL = "SELECT " + ToDoRowMapper.COLUMNS + " FROM " + ToDoRowMapper.FROM + " WHERE t.id = ?";
+    private static final String SELECT_ALL_SQL = "SELECT " + ToDoRowMapper.COLUMNS + " FROM " + ToDoRowMapper.FROM;
+    private static final String STREAM_ALL_SQL = SELECT_ALL_SQL + " ORDER BY t.id";
+    private static final String DELETE_SQL = "DELETE FROM todo WHERE id = ?";
+    private static final String DELETE_MANY_SQL = "DELETE FROM todo WHERE id = ANY(?)";
+    private static final String SELECT_BY_BOARD_SQL = SELECT_ALL_SQL + " WHERE t.id_board = ?" + ORDER_BY;
+    private static final String SELECT_BOARD_VIEW_SQL = "SELECT " + ToDoRowMapper.COLUMNS + ", t.id_board_condivisione FROM "
+            + ToDoRowMapper.VISTA_BOARD + " LEFT JOIN utente u ON u.id = t.id_utente" + ORDER_BY;
+    private static final String SELECT_SHARED_WITH_SQL = "SELECT " + ToDoRowMapper.COLUMNS + ", t.id_board_condivisione FROM "
+            + ToDoRowMapper.VISTA_CONDIVISI_CON + " LEFT JOIN utente u ON u.id = t.id_utente ORDER BY t.id";
+    private static final String SELECT_SUMMARIES_BY_BOARD_SQL = "SELECT " + ToDoRowMapper.SUMMARY_COLUMNS
+            + " FROM " + ToDoRowMapper.VISTA_BOARD + ORDER_BY;
+    private static final String SELECT_FIRST_PAGE_SQL = "SELECT " + ToDoRowMapper.SUMMARY_COLUMNS
+            + " FROM " + ToDoRowMapper.VISTA_BOARD + ORDER_BY + " LIMIT ?";
+    private static final String SELECT_NEXT_PAGE_SQL = "SELECT " + ToDoRowMapper.SUMMARY_COLUMNS
+            + " FROM " + ToDoRowMapper.VISTA_BOARD + " WHERE (t.posizione, t.id) > (?, ?)" + ORDER_BY + " LIMIT ?";
+    private static final String SELECT_DASHBOARD_SUMMARIES_SQL = "SELECT * FROM (SELECT " + ToDoRowMapper.SUMMARY_COLUMNS
+            + ", COALESCE(t.id_board_condivisione, t.id_board) AS id_board_vista"
+            + ", ROW_NUMBER() OVER (PARTITION BY COALESCE(t.id_board_condivisione, t.id_board)" + ORDER_BY + ") AS riga"
+            + " FROM " + ToDoRowMapper.VISTA_BOARDS + ") p WHERE p.riga <= ? ORDER BY p.id_board_vista, p.posizione, p.id";
+    /**
+     * Completa i ToDo che appartengono a una bacheca. I ToDo condivisi nella bacheca tramite todo_share
+     * restano esclusi: sono righe di altri utenti, e un'azione massiva su una propria bacheca non deve modificarle.
+     */
+    private static final String COMPLETE_BOARD_SQL =
+            "UPDATE todo SET stato = ?, version = version + 1 WHERE id_board = ? AND stato <> ?";
+    /**
+     * Condivisione di un ToDo in un'unica istruzione: trova il destinatario e il ToDo originale,
+     * usa la bacheca del destinatario con lo stesso titolo (senza distinguere maiuscole e minuscole) o la crea,
+     * e registra la condivisione in todo_share, senza copiare il ToDo. La chiave primaria (id_todo, id_utente)
+     * rende la condivisione idempotente e il proprietario non può condividere il ToDo con sé stesso.
+     * Restituisce una riga con il numero di destinatari e di ToDo trovati e l'ID del ToDo se la condivisione è nuova.
+     */
+    private static final String SHARE_SQL = "WITH destinatario AS ("
+            + "SELECT id FROM utente WHERE username = ?"
+            + "), origine AS ("
+            + "SELECT id, id_utente FROM todo WHERE id = ?"
+            + "), bacheca_esistente AS ("
+            + "SELECT b.id FROM board b JOIN destinatario d ON d.id = b.id_utente"
+            + " WHERE lower(b.titolo) = lower(?) ORDER BY b.titolo = ? DESC, b.id LIMIT 1"
+            + "), bacheca_nuova AS ("
+            + "INSERT INTO board (titolo, id_utente) SELECT ?, d.id FROM destinatario d"
+            + " WHERE NOT EXISTS (SELECT 1 FROM bacheca_esistente) AND EXISTS (SELECT 1 FROM origine)"
+            + " ON CONFLICT (id_utente, titolo) DO UPDATE SET titolo = EXCLUDED.titolo RETURNING id"
+            + "), bacheca AS ("
+            + "SELECT id FROM bacheca_esistente UNION ALL SELECT id FROM bacheca_nuova"
+            + "), condivisione AS ("
+            + "INSERT INTO todo_share (id_todo, id_utente, id_board)"
+            + " SELECT o.id, d.id, b.id FROM origine o CROSS JOIN destinatario d CROSS JOIN bacheca b WHERE d.id <> o.id_utente"
+            + " ON CONFLICT (id_todo, id_utente) DO NOTHING RETURNING id_todo"
+            + ") SELECT (SELECT count(*) FROM destinatario) AS destinatari, (SELECT count(*) FROM origine) AS origini,"
+            + " (SELECT id_todo FROM condivisione) AS id_condiviso";
+    /**
+     * Trova i destinatari di una condivisione multipla; ogni riga riporta anche quanti dei ToDo da condividere esistono.
+     */
+    private static final String SELECT_DESTINATARI_SQL = "SELECT id, username, (SELECT count(*) FROM todo WHERE id = ANY(?)) AS origini"
+            + " FROM utente WHERE username = ANY(?)";
+    /**
+     * Crea, per ogni destinatario, le bacheche che mancano con i titoli delle bacheche dei ToDo condivisi.
+     * Una bacheca con lo stesso titolo a meno di maiuscole e minuscole viene considerata già presente,
+     * e tra titoli di origine che differiscono solo per maiuscole e minuscole ne viene creata una sola.
+     * Come in SHARE_MANY_SQL il proprietario di un ToDo non ne è destinatario, quindi non riceve bacheche vuote.
+     */
+    private static final String SHARE_MANY_BOARDS_SQL = "INSERT INTO board (titolo, id_utente)"
+            + " SELECT DISTINCT ON (lower(src.titolo), d.id) src.titolo, d.id FROM todo t JOIN board src ON src.id = t.id_board"
+            + " CROSS JOIN unnest(?::integer[]) AS d(id)"
+            + " WHERE t.id = ANY(?) AND d.id <> t.id_utente AND NOT EXISTS ("
+            + "SELECT 1 FROM board e WHERE e.id_utente = d.id AND lower(e.titolo) = lower(src.titolo))"
+            + " ORDER BY lower(src.titolo), d.id, src.titolo"
+            + " ON CONFLICT (id_utente, titolo) DO NOTHING";
+    /**
+     * Registra in todo_share le condivisioni di tutti i ToDo con tutti i destinatari, ciascuna nella bacheca
+     * del destinatario con il titolo della bacheca di origine, e restituisce il destinatario di ogni condivisione nuova.
+     */
+    private static final String SHARE_MANY_SQL = "INSERT INTO todo_share (id_todo, id_utente, id_board)"
+            + " SELECT t.id, d.id, dest.id FROM todo t JOIN board src ON src.id = t.id_board"
+            + " CROSS JOIN unnest(?::integer[]) AS d(id)"
+            + " JOIN LATERAL (SELECT b.id FROM board b WHERE b.id_utente = d.id AND lower(b.titolo) = lower(src.titolo)"
+            + " ORDER BY b.titolo = src.titolo DESC, b.id LIMIT 1) dest ON true"
+            + " WHERE t.id = ANY(?) AND d.id <> t.id_utente"
+            + " ON CONFLICT (id_todo, id_utente) DO NOTHING RETURNING id_utente";
+    private static final String REVOKE_SQL = "DELETE FROM todo_share WHERE id_todo = ? AND id_board = ?";
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    public PostgresToDoDAO(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Imposta quante righe inviare al database in ogni batch per le operazioni massive.
+     * @param batchSize il numero di righe per batch, deve essere positivo
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("La dimensione del batch deve essere positiva: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imposta quante righe leggere dal database a ogni giro del cursore negli stream.
+     * @param fetchSize il numero di righe per giro, deve essere positivo
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("La dimensione del fetch deve essere positiva: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
     }
+
+    /**
+     * Imposta sullo statement i valori delle undici colonne del ToDo, nello stesso ordine di INSERT_SQL.
+     */
+    private static void bindColumns(PreparedStatement stmt, ToDo todo) throws SQLException {
+        stmt.setString(1, todo.getTitolo());
+        stmt.setString(2, todo.getDescrizione());
+        stmt.setDate(3, todo.getScadenza() != null ? new java.sql.Date(todo.getScadenza().getTime()) : null);
+        stmt.setString(4, todo.getColore());
+        stmt.setString(5, todo.getStato().name());
+        stmt.setString(6, todo.getUrl());
+        stmt.setString(7, todo.getImg());
+        stmt.setInt(8, todo.getPosizione());
+        stmt.setInt(9, todo.getIdUtente());
+        stmt.setString(10, todo.getSharedByUsername());
+        stmt.setInt(11, todo.getIdBoard());
+    }
+
+    /**
+     * Restituisce l'UPDATE che scrive solo le colonne dei campi indicati, nell'ordine dell'enum CampoToDo.
+     * L'UPDATE incrementa la versione e modifica la riga solo se la sua versione è ancora quella letta.
+     */
+    private static String updateSql(Set<CampoToDo> campi) {
+        return UPDATE_SQL_PER_CAMPI.computeIfAbsent(EnumSet.copyOf(campi), c -> {
+            StringBuilder sql = new StringBuilder("UPDATE todo SET ");
+            for (CampoToDo campo : c) {
+                if (sql.length() > "UPDATE todo SET ".length()) {
+                    sql.append(", ");
+                }
+                sql.append(colonna(campo)).append(" = ?");
+            }
+            return sql.append(", version = version + 1 WHERE id = ? AND version = ?").toString();
+        });
+    }
+
+    /**
+     * Restituisce il nome della colonna della tabella todo corrispondente a un campo.
+     */
+    private static String colonna(CampoToDo campo) {
+        switch (campo) {
+            case TITOLO: return "titolo";
+            case DESCRIZIONE: return "descrizione";
+            case SCADENZA: return "scadenza";
+            case COLORE: return "colore";
+            case STATO: return "stato";
+            case URL: return "url";
+            case IMG: return "img";
+            case POSIZIONE: return "posizione";
+            case ID_UTENTE: return "id_utente";
+            case CONDIVISO_DA_UTENTE: return "condiviso_da_utente";
+            case ID_BOARD: return "id_board";
+            default: throw new IllegalArgumentException("Campo non gestito: " + campo);
+        }
+    }
+
+    /**
+     * Imposta sullo statement i valori dei campi indicati, l'ID e la versione letta, nello stesso ordine di updateSql.
+     */
+    private static void bindUpdate(PreparedStatement stmt, ToDo todo, Set<CampoToDo> campi) throws SQLException {
+        int i = 1;
+        for (CampoToDo campo : campi) {
+            switch (campo) {
+                case TITOLO: stmt.setString(i, todo.getTitolo()); break;
+                case DESCRIZIONE: stmt.setString(i, todo.getDescrizione()); break;
+                case SCADENZA: stmt.setDate(i, todo.getScadenza() != null ? new java.sql.Date(todo.getScadenza().getTime()) : null); break;
+                case COLORE: stmt.setString(i, todo.getColore()); break;
+                case STATO: stmt.setString(i, todo.getStato().name()); break;
+                case URL: stmt.setString(i, todo.getUrl()); break;
+                case IMG: stmt.setString(i, todo.getImg()); break;
+                case POSIZIONE: stmt.setInt(i, todo.getPosizione()); break;
+                case ID_UTENTE: stmt.setInt(i, todo.getIdUtente()); break;
+                case CONDIVISO_DA_UTENTE: stmt.setString(i, todo.getSharedByUsername()); break;
+                case ID_BOARD: stmt.setInt(i, todo.getIdBoard()); break;
+                default: throw new IllegalArgumentException("Campo non gestito: " + campo);
+            }
+            i++;
+        }
+        stmt.setInt(i, todo.getId());
+        stmt.setInt(i + 1, todo.getVersione());
+    }
+
     @Override
     /**
      * Aggiunge un nuovo ToDo al database.
      * @param todo L'oggetto ToDo da aggiungere.
      */
     public void addToDo(ToDo todo) {
-        String sql = "INSERT INTO todo (titolo, descrizione, scadenza, colore, stato, url, img, posizione, id_utente, condiviso_da_utente, id_board) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) RETURNING id";
-        try (PreparedStatement stmt = DBConnection.getConnection().prepareStatement(sql)) {
-            stmt.setString(1, todo.getTitolo());
-            stmt.setString(2, todo.getDescrizione());
-            stmt.setDate(3, todo.getScadenza() != null ? new java.sql.Date(todo.getScadenza().getTime()) : null);
-            stmt.setString(4, todo.getColore());
-            stmt.setString(5, todo.getStato().name());
-            stmt.setString(6, todo.getUrl());
-            stmt.setString(7, todo.getImg());
-            stmt.setInt(8, todo.getPosizione());
-            stmt.setInt(9, todo.getIdUtente());
-            stmt.setString(10, todo.getSharedByUsername());
-            stmt.setInt(11, todo.getIdBoard());
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_RETURNING_SQL)) {
+            bindColumns(stmt, todo);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
                 todo.setId(rs.getInt(1));
+                todo.pulisciCampiModificati();
             }
         } catch (SQLException e) {
             logger.severe("Errore durante l'inserimento del ToDo: " + e.getMessage());
@@ -69,34 +272,12 @@ public class PostgresToDoDAO implements ToDoDAO {
      * @return L'oggetto ToDo corrispondente all'ID, o null se non trovato.
      */
     public ToDo getToDoById(int id) {
-       // String sql = "SELECT * FROM todo WHERE id = ?";
-        String sql = "SELECT id, titolo, descrizione, scadenza, colore, stato, url, img, posizione, id_utente, condiviso_da_utente, id_board FROM todo WHERE id = ?";
-        try (PreparedStatement stmt = DBConnection.getConnection().prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                Date scadenzaDate = rs.getDate(COL_SCADENZA);
-                LocalDate scadenzaLocalDate = (scadenzaDate != null) ? ((java.sql.Date) scadenzaDate).toLocalDate() : null;
-                ToDo todo = new ToDo(
-                        rs.getInt("id"),
-                        rs.getString(COL_TITOLO),
-                        rs.getString(COL_DESCRIZIONE),
-                        scadenzaLocalDate,
-                        rs.getString(COL_COLORE),
-                        rs.getString(COL_STATO),
-                        rs.getString("url"),
-                        rs.getString("img"),
-                        rs.getInt(COL_POSIZIONE),
-                        rs.getInt(COL_ID_UTENTE),
-                        rs.getString(COL_CONDIVISO_DA_UTENTE),
-                        rs.getInt(COL_ID_BOARD)
-                );
-                // Populate utenteCreatore
-                int idUtenteCreatore = rs.getInt(COL_ID_UTENTE);
-                if (idUtenteCreatore > 0) { // Assuming ID 0 is invalid or not used for real users
-                    todo.setUtenteCreatore(utenteDAO.getUtenteById(idUtenteCreatore));
-                }
-                return todo;
+                return new ToDoRowMapper().map(rs);
             }
         } catch (SQLException e) {
             logger.severe("Errore durante il recupero del ToDo per ID: " + e.getMessage());
@@ -111,32 +292,12 @@ public class PostgresToDoDAO implements ToDoDAO {
      */
     public List<ToDo> getAllToDos() {
         List<ToDo> todos = new ArrayList<>();
-        String sql = "SELECT id, titolo, descrizione, scadenza, colore, stato, url, img, posizione, id_utente, condiviso_da_utente, id_board FROM todo";
-        try (Statement stmt = DBConnection.getConnection().createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SELECT_ALL_SQL)) {
+            ToDoRowMapper mapper = new ToDoRowMapper();
             while (rs.next()) {
-                Date scadenzaDate = rs.getDate(COL_SCADENZA);
-                LocalDate scadenzaLocalDate = (scadenzaDate != null) ? ((java.sql.Date) scadenzaDate).toLocalDate() : null;
-                ToDo todo = new ToDo(
-                        rs.getInt("id"),
-                        rs.getString(COL_TITOLO),
-                        rs.getString(COL_DESCRIZIONE),
-                        scadenzaLocalDate,
-                        rs.getString(COL_COLORE),
-                        rs.getString(COL_STATO),
-                        rs.getString("url"),
-                        rs.getString("img"),
-                        rs.getInt(COL_POSIZIONE),
-                        rs.getInt(COL_ID_UTENTE),
-                        rs.getString(COL_CONDIVISO_DA_UTENTE),
-                        rs.getInt(COL_ID_BOARD)
-                );
-                // Populate utenteCreatore
-                int idUtenteCreatore = rs.getInt(COL_ID_UTENTE);
-                if (idUtenteCreatore > 0) {
-                    todo.setUtenteCreatore(utenteDAO.getUtenteById(idUtenteCreatore));
-                }
-                todos.add(todo);
+                todos.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             logger.severe("Errore durante il recupero di tutti i ToDo: " + e.getMessage());
@@ -146,27 +307,153 @@ public class PostgresToDoDAO implements ToDoDAO {
 
     @Override
     /**
-     * Aggiorna un ToDo esistente nel database.
+     * Legge tutti i ToDo dal database come stream, con un cursore lato server.
+     * Il driver PostgreSQL usa un cursore solo con l'autocommit disattivato e un fetch size impostato:
+     * in questo caso legge fetchSize righe alla volta, e il blocco successivo viene chiesto al database
+     * solo quando lo stream ha consumato il precedente, quindi la memoria usata non dipende dal numero di ToDo.
+     * Result set e statement vengono chiusi e la connessione torna al pool appena lo stream arriva all'ultima riga
+     * o la lettura fallisce, e comunque alla chiusura dello stream.
+     * Se la query non può essere eseguita, o la lettura si interrompe, l'errore viene registrato e lanciato
+     * come IllegalStateException, così un'esportazione non risulta riuscita quando non lo è.
+     * @return Uno stream di tutti i ToDo, ordinati per ID, da chiudere al termine.
+     * @throws IllegalStateException se la query non può essere eseguita
+     */
+    public Stream<ToDo> streamAllToDos() {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs;
+        try {
+            conn = pool.getConnection();
+            conn.setAutoCommit(false);
+            stmt = conn.prepareStatement(STREAM_ALL_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(fetchSize);
+            rs = stmt.executeQuery();
+        } catch (SQLException e) {
+            logger.severe("Errore durante l'apertura dello stream dei ToDo: " + e.getMessage());
+            new RisorseStream(null, stmt, conn).chiudi();
+            throw new IllegalStateException("Impossibile leggere i ToDo", e);
+        }
+
+        final RisorseStream risorse = new RisorseStream(rs, stmt, conn);
+        final ToDoRowMapper mapper = new ToDoRowMapper();
+        Spliterator<ToDo> spliterator = new Spliterators.AbstractSpliterator<ToDo>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super ToDo> action) {
+                if (risorse.isChiuso()) {
+                    return false;
+                }
+                ToDo todo;
+                try {
+                    if (!risorse.rs.next()) {
+                        risorse.chiudi();
+                        return false;
+                    }
+                    todo = mapper.map(risorse.rs);
+                } catch (SQLException e) {
+                    logger.severe("Errore durante la lettura dello stream dei ToDo: " + e.getMessage());
+                    risorse.chiudi();
+                    throw new IllegalStateException("Lettura dei ToDo interrotta", e);
+                }
+                action.accept(todo);
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(risorse::chiudi);
+    }
+
+    /**
+     * Risorse JDBC aperte da uno stream di ToDo. Possono essere chiuse più volte:
+     * solo la prima chiamata a chiudi ha effetto.
+     */
+    private static final class RisorseStream {
+        private final ResultSet rs;
+        private final Statement stmt;
+        private final Connection conn;
+        private boolean chiuso;
+
+        private RisorseStream(ResultSet rs, Statement stmt, Connection conn) {
+            this.rs = rs;
+            this.stmt = stmt;
+            this.conn = conn;
+        }
+
+        private boolean isChiuso() {
+            return chiuso;
+        }
+
+        /**
+         * Chiude result set, statement e connessione in quest'ordine, registrando gli errori senza propagarli.
+         * La connessione torna al pool, che annulla la transazione di sola lettura e ripristina l'autocommit.
+         */
+        private void chiudi() {
+            if (chiuso) {
+                return;
+            }
+            chiuso = true;
+            if (rs != null) {
+                try {
+                    rs.close();
+                } catch (SQLException e) {
+                    logger.warning("Errore durante la chiusura del result set dei ToDo: " + e.getMessage());
+                }
+            }
+            if (stmt != null) {
+                try {
+                    stmt.close();
+                } catch (SQLException e) {
+                    logger.warning("Errore durante la chiusura dello statement dei ToDo: " + e.getMessage());
+                }
+            }
+            if (conn != null) {
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    logger.warning("Errore durante la chiusura della connessione dello stream dei ToDo: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    /**
+     * Aggiorna un ToDo esistente nel database, scrivendo solo le colonne dei campi modificati
+     * dopo il caricamento. Se nessun campo è cambiato non viene eseguita alcuna istruzione.
+     * La riga viene aggiornata solo se la sua versione è ancora quella del ToDo: in quel caso la versione
+     * del ToDo viene incrementata e i suoi campi risultano di nuovo non modificati.
+     * Se un altro client ha aggiornato la riga nel frattempo, viene riletto solo quel ToDo e restituito
+     * come stato attuale, così il chiamante può unire le modifiche e riprovare.
      * @param todo L'oggetto ToDo con i dati aggiornati.
+     * @return L'esito dell'aggiornamento, con il ToDo attuale in caso di conflitto.
      */
-    public void updateToDo(ToDo todo) {
-        String sql = "UPDATE todo SET titolo = ?, descrizione = ?, scadenza = ?, colore = ?, stato = ?, url = ?, img = ?, posizione = ?, id_utente = ?, condiviso_da_utente = ?, id_board = ? WHERE id = ?";
-        try (PreparedStatement stmt = DBConnection.getConnection().prepareStatement(sql)) {
-            stmt.setString(1, todo.getTitolo());
-            stmt.setString(2, todo.getDescrizione());
-            stmt.setDate(3, todo.getScadenza() != null ? new java.sql.Date(todo.getScadenza().getTime()) : null);
-            stmt.setString(4, todo.getColore());
-            stmt.setString(5, todo.getStato().name());
-            stmt.setString(6, todo.getUrl());
-            stmt.setString(7, todo.getImg());
-            stmt.setInt(8, todo.getPosizione());
-            stmt.setInt(9, todo.getIdUtente());
-            stmt.setString(10, todo.getSharedByUsername());
-            stmt.setInt(11, todo.getIdBoard());
-            stmt.setInt(12, todo.getId());
-            stmt.executeUpdate();
+    public RisultatoAggiornamento<ToDo> updateToDo(ToDo todo) {
+        Set<CampoToDo> campi = todo.getCampiModificati();
+        if (campi.isEmpty()) {
+            logger.fine("Nessuna modifica da salvare per il ToDo " + todo.getId());
+            return RisultatoAggiornamento.di(RisultatoAggiornamento.Esito.NESSUNA_MODIFICA);
+        }
+        try (Connection conn = pool.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(updateSql(campi))) {
+                bindUpdate(stmt, todo, campi);
+                if (stmt.executeUpdate() == 1) {
+                    todo.setVersione(todo.getVersione() + 1);
+                    todo.pulisciCampiModificati();
+                    return RisultatoAggiornamento.di(RisultatoAggiornamento.Esito.AGGIORNATO);
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
+                stmt.setInt(1, todo.getId());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        logger.info("Conflitto di versione sul ToDo " + todo.getId());
+                        return new RisultatoAggiornamento<>(RisultatoAggiornamento.Esito.CONFLITTO, new ToDoRowMapper().map(rs));
+                    }
+                }
+            }
+            return RisultatoAggiornamento.di(RisultatoAggiornamento.Esito.NON_TROVATO);
         } catch (SQLException e) {
             logger.severe("Errore durante l'aggiornamento del ToDo: " + e.getMessage());
+            return RisultatoAggiornamento.di(RisultatoAggiornamento.Esito.ERRORE);
         }
     }
 
@@ -177,8 +464,8 @@ public class PostgresToDoDAO implements ToDoDAO {
      * @param id L'ID del ToDo da eliminare.
      */
     public void deleteToDo(int id) {
-        String sql = "DELETE FROM todo WHERE id = ?";
-        try (PreparedStatement stmt = DBConnection.getConnection().prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(DELETE_SQL)) {
             stmt.setInt(1, id);
             stmt.executeUpdate();
         } catch (SQLException e) {
@@ -186,6 +473,147 @@ public class PostgresToDoDAO implements ToDoDAO {
         }
     }
 
+    @Override
+    /**
+     * Aggiunge più ToDo al database in un'unica transazione, inviandoli a blocchi di batchSize righe.
+     * Gli ID generati vengono impostati sui ToDo nello stesso ordine della lista.
+     * Se un blocco fallisce, nessun ToDo viene inserito.
+     * @param todos I ToDo da aggiungere.
+     */
+    public void addToDos(List<ToDo> todos) {
+        if (todos == null || todos.isEmpty()) {
+            return;
+        }
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, new String[]{"id"})) {
+                for (int from = 0; from < todos.size(); from += batchSize) {
+                    List<ToDo> chunk = todos.subList(from, Math.min(from + batchSize, todos.size()));
+                    for (ToDo todo : chunk) {
+                        bindColumns(stmt, todo);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                    try (ResultSet keys = stmt.getGeneratedKeys()) {
+                        for (ToDo todo : chunk) {
+                            if (keys.next()) {
+                                todo.setId(keys.getInt(1));
+                            }
+                        }
+                    }
+                }
+                conn.commit();
+                todos.forEach(ToDo::pulisciCampiModificati);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.severe("Errore durante l'inserimento multiplo dei ToDo: " + e.getMessage());
+        }
+    }
+
+    @Override
+    /**
+     * Aggiorna più ToDo nel database in un'unica transazione, inviandoli a blocchi di batchSize righe.
+     * I ToDo vengono raggruppati per insieme di campi modificati: ogni gruppo usa un solo UPDATE
+     * con le sole colonne cambiate, e i ToDo senza modifiche vengono saltati.
+     * Ogni riga viene aggiornata solo se la sua versione è ancora quella del ToDo; i ToDo modificati
+     * nel frattempo da un altro client non vengono scritti e sono restituiti, con le modifiche ancora da salvare.
+     * Se un blocco fallisce, nessun ToDo viene aggiornato.
+     * @param todos I ToDo con i dati aggiornati.
+     * @return CONFLITTO con i ToDo non aggiornati per un conflitto di versione, AGGIORNATO se sono stati
+     *         scritti tutti, NESSUNA_MODIFICA se non c'era nulla da salvare, ERRORE se la transazione è fallita.
+     */
+    public RisultatoAggiornamento<List<ToDo>> updateToDos(List<ToDo> todos) {
+        List<ToDo> inConflitto = new ArrayList<>();
+        if (todos == null || todos.isEmpty()) {
+            return RisultatoAggiornamento.di(RisultatoAggiornamento.Esito.NESSUNA_MODIFICA);
+        }
+        Map<Set<CampoToDo>, List<ToDo>> perCampi = new LinkedHashMap<>();
+        for (ToDo todo : todos) {
+            Set<CampoToDo> campi = todo.getCampiModificati();
+            if (!campi.isEmpty()) {
+                perCampi.computeIfAbsent(campi, c -> new ArrayList<>()).add(todo);
+            }
+        }
+        if (perCampi.isEmpty()) {
+            return RisultatoAggiornamento.di(RisultatoAggiornamento.Esito.NESSUNA_MODIFICA);
+        }
+        List<ToDo> aggiornati = new ArrayList<>();
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (Map.Entry<Set<CampoToDo>, List<ToDo>> gruppo : perCampi.entrySet()) {
+                    try (PreparedStatement stmt = conn.prepareStatement(updateSql(gruppo.getKey()))) {
+                        List<ToDo> membri = gruppo.getValue();
+                        for (int from = 0; from < membri.size(); from += batchSize) {
+                            List<ToDo> chunk = membri.subList(from, Math.min(from + batchSize, membri.size()));
+                            for (ToDo todo : chunk) {
+                                bindUpdate(stmt, todo, gruppo.getKey());
+                                stmt.addBatch();
+                            }
+                            int[] righe = stmt.executeBatch();
+                            for (int i = 0; i < chunk.size(); i++) {
+                                (righe[i] == 0 ? inConflitto : aggiornati).add(chunk.get(i));
+                            }
+                        }
+                    }
+                }
+                conn.commit();
+                for (ToDo todo : aggiornati) {
+                    todo.setVersione(todo.getVersione() + 1);
+                    todo.pulisciCampiModificati();
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.severe("Errore durante l'aggiornamento multiplo dei ToDo: " + e.getMessage());
+            return RisultatoAggiornamento.di(RisultatoAggiornamento.Esito.ERRORE);
+        }
+        if (!inConflitto.isEmpty()) {
+            logger.info("ToDo non aggiornati per conflitto di versione: " + inConflitto.size());
+            return new RisultatoAggiornamento<>(RisultatoAggiornamento.Esito.CONFLITTO, inConflitto);
+        }
+        return RisultatoAggiornamento.di(RisultatoAggiornamento.Esito.AGGIORNATO);
+    }
+
+    @Override
+    /**
+     * Elimina più ToDo dal database in un'unica transazione.
+     * Ogni blocco di batchSize ID viene eliminato con una sola istruzione "id = ANY(?)".
+     * @param ids Gli ID dei ToDo da eliminare.
+     */
+    public void deleteToDos(int[] ids) {
+        if (ids == null || ids.length == 0) {
+            return;
+        }
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(DELETE_MANY_SQL)) {
+                for (int from = 0; from < ids.length; from += batchSize) {
+                    int to = Math.min(from + batchSize, ids.length);
+                    Integer[] chunk = new Integer[to - from];
+                    for (int i = from; i < to; i++) {
+                        chunk[i - from] = ids[i];
+                    }
+                    Array array = conn.createArrayOf("integer", chunk);
+                    stmt.setArray(1, array);
+                    stmt.executeUpdate();
+                    array.free();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.severe("Errore durante l'eliminazione multipla dei ToDo: " + e.getMessage());
+        }
+    }
+
     @Override
     /**
      * Recupera tutti i ToDo associati a una specifica board.
@@ -194,33 +622,13 @@ public class PostgresToDoDAO implements ToDoDAO {
      */
     public List<ToDo> getToDosByBoardId(int boardId) {
         List<ToDo> todos = new ArrayList<>();
-        String sql = "SELECT id, titolo, descrizione, scadenza, colore, stato, url, img, posizione, id_utente, condiviso_da_utente, id_board FROM todo WHERE id_board = ?";
-        try (PreparedStatement stmt = DBConnection.getConnection().prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_BOARD_SQL)) {
             stmt.setInt(1, boardId);
             ResultSet rs = stmt.executeQuery();
+            ToDoRowMapper mapper = new ToDoRowMapper();
             while (rs.next()) {
-                Date scadenzaDate = rs.getDate(COL_SCADENZA);
-                LocalDate scadenzaLocalDate = (scadenzaDate != null) ? ((java.sql.Date) scadenzaDate).toLocalDate() : null;
-                ToDo todo = new ToDo(
-                        rs.getInt("id"),
-                        rs.getString(COL_TITOLO),
-                        rs.getString(COL_DESCRIZIONE),
-                        scadenzaLocalDate,
-                        rs.getString(COL_COLORE),
-                        rs.getString(COL_STATO),
-                        rs.getString("url"),
-                        rs.getString("img"),
-                        rs.getInt( COL_POSIZIONE),
-                        rs.getInt(COL_ID_UTENTE),
-                        rs.getString(COL_CONDIVISO_DA_UTENTE),
-                        rs.getInt(COL_ID_BOARD)
-                );
-                // Populate utenteCreatore
-                int idUtenteCreatore = rs.getInt(COL_ID_UTENTE);
-                if (idUtenteCreatore > 0) {
-                    todo.setUtenteCreatore(utenteDAO.getUtenteById(idUtenteCreatore));
-                }
-                todos.add(todo);
+                todos.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             logger.severe("Errore durante il recupero dei ToDo per board ID: " + e.getMessage());
@@ -230,14 +638,309 @@ public class PostgresToDoDAO implements ToDoDAO {
 
     @Override
     /**
-     * Segna tutti i ToDo di una specifica board come completati.
+     * Recupera i ToDo di una board, eventualmente insieme a quelli condivisi con il proprietario in quella board.
+     * I ToDo condivisi sono gli originali, letti tramite todo_share, e hanno impostata la bacheca di condivisione.
+     * @param boardId L'ID della board per cui recuperare i ToDo.
+     * @param includiCondivisi true per includere i ToDo condivisi nella board.
+     * @return I ToDo della board, ordinati per posizione.
+     */
+    public List<ToDo> getToDosByBoardId(int boardId, boolean includiCondivisi) {
+        if (!includiCondivisi) {
+            return getToDosByBoardId(boardId);
+        }
+        List<ToDo> todos = new ArrayList<>();
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BOARD_VIEW_SQL)) {
+            stmt.setInt(1, boardId);
+            stmt.setInt(2, boardId);
+            ResultSet rs = stmt.executeQuery();
+            ToDoRowMapper mapper = new ToDoRowMapper();
+            while (rs.next()) {
+                todos.add(mapper.mapVista(rs));
+            }
+        } catch (SQLException e) {
+            logger.severe("Errore durante il recupero dei ToDo e delle condivisioni per board ID: " + e.getMessage());
+        }
+        return todos;
+    }
+
+    @Override
+    /**
+     * Recupera i ToDo condivisi con un utente, usando l'indice (id_utente, id_todo) di todo_share.
+     * @param idUtente L'ID dell'utente destinatario.
+     * @return I ToDo condivisi con l'utente, con impostata la bacheca in cui compaiono.
+     */
+    public List<ToDo> getToDosCondivisiCon(int idUtente) {
+        List<ToDo> todos = new ArrayList<>();
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_SHARED_WITH_SQL)) {
+            stmt.setInt(1, idUtente);
+            ResultSet rs = stmt.executeQuery();
+            ToDoRowMapper mapper = new ToDoRowMapper();
+            while (rs.next()) {
+                todos.add(mapper.mapVista(rs));
+            }
+        } catch (SQLException e) {
+            logger.severe("Errore durante il recupero dei ToDo condivisi con l'utente: " + e.getMessage());
+        }
+        return todos;
+    }
+
+    @Override
+    /**
+     * Revoca la condivisione di un ToDo in una bacheca del destinatario, senza toccare il ToDo.
+     * @param idToDo L'ID del ToDo condiviso.
+     * @param idBoard L'ID della bacheca del destinatario in cui il ToDo compare.
+     * @return true se la condivisione esisteva ed è stata eliminata.
+     */
+    public boolean revocaCondivisione(int idToDo, int idBoard) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(REVOKE_SQL)) {
+            stmt.setInt(1, idToDo);
+            stmt.setInt(2, idBoard);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            logger.severe("Errore durante la revoca della condivisione del ToDo: " + e.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    /**
+     * Recupera i riepiloghi dei ToDo di una board, senza descrizione, URL, immagine e senza la join verso il creatore.
+     * Comprende i ToDo condivisi nella board tramite todo_share.
+     * @param boardId L'ID della board per cui recuperare i ToDo.
+     * @return Una lista di riepiloghi dei ToDo della board.
+     */
+    public List<ToDoSummary> getToDoSummariesByBoardId(int boardId) {
+        List<ToDoSummary> summaries = new ArrayList<>();
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_SUMMARIES_BY_BOARD_SQL)) {
+            stmt.setInt(1, boardId);
+            stmt.setInt(2, boardId);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                summaries.add(ToDoRowMapper.mapSummary(rs));
+            }
+        } catch (SQLException e) {
+            logger.severe("Errore durante il recupero dei riepiloghi dei ToDo per board ID: " + e.getMessage());
+            return null;
+        }
+        return summaries;
+    }
+
+    @Override
+    /**
+     * Recupera una pagina di riepiloghi dei ToDo di una board con la paginazione per chiave:
+     * invece di un OFFSET, la condizione "(posizione, id) > cursore" fa partire la scansione dell'indice
+     * (id_board, posizione, id) direttamente dal primo ToDo della pagina, quindi ogni pagina costa come la prima.
+     * I ToDo condivisi nella board vengono uniti nello stesso ordine.
+     * @param boardId L'ID della board per cui recuperare i ToDo.
+     * @param dopo Il cursore dell'ultimo ToDo già letto, o null per partire dall'inizio.
+     * @param limite Il numero massimo di riepiloghi da restituire.
+     * @return I riepiloghi della pagina.
+     */
+    public List<ToDoSummary> getToDoSummaryPage(int boardId, PaginaToDo.Cursore dopo, int limite) {
+        List<ToDoSummary> summaries = new ArrayList<>();
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(dopo != null ? SELECT_NEXT_PAGE_SQL : SELECT_FIRST_PAGE_SQL)) {
+            int i = 1;
+            stmt.setInt(i++, boardId);
+            stmt.setInt(i++, boardId);
+            if (dopo != null) {
+                stmt.setInt(i++, dopo.getPosizione());
+                stmt.setInt(i++, dopo.getId());
+            }
+            stmt.setInt(i, limite);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                summaries.add(ToDoRowMapper.mapSummary(rs));
+            }
+        } catch (SQLException e) {
+            logger.severe("Errore durante il recupero di una pagina di ToDo per board ID: " + e.getMessage());
+            return null;
+        }
+        return summaries;
+    }
+
+    @Override
+    /**
+     * Legge i riepiloghi dei primi ToDo di ogni board indicata con un'unica query,
+     * numerando le righe di ogni board con ROW_NUMBER nello stesso ordine delle pagine.
+     * I ToDo condivisi vengono numerati nella bacheca in cui compaiono.
+     * @param boardIds Gli ID delle board da leggere.
+     * @param limitePerBacheca Il numero massimo di ToDo da leggere per ogni board.
+     * @param consumer Il consumer che riceve ogni riepilogo letto.
+     * @return true se la lettura è riuscita, false in caso di errore.
+     */
+    public boolean forEachToDoSummaryByBoardIds(Collection<Integer> boardIds, int limitePerBacheca, Consumer<ToDoSummary> consumer) {
+        if (boardIds.isEmpty()) {
+            return true;
+        }
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_DASHBOARD_SUMMARIES_SQL)) {
+            Array ids = conn.createArrayOf("integer", boardIds.toArray());
+            stmt.setArray(1, ids);
+            stmt.setArray(2, ids);
+            stmt.setInt(3, limitePerBacheca);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                consumer.accept(ToDoRowMapper.mapSummary(rs));
+            }
+            ids.free();
+            return true;
+        } catch (SQLException e) {
+            logger.severe("Errore durante il recupero dei riepiloghi dei ToDo delle board: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    /**
+     * Carica dal database descrizione, URL, immagine e creatore di un ToDo ottenuto da un riepilogo.
+     * @param todo Il ToDo da completare.
+     * @return true se il ToDo è stato trovato e completato.
+     */
+    public boolean loadToDoDetails(ToDo todo) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
+            stmt.setInt(1, todo.getId());
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                new ToDoRowMapper().mapDetails(rs, todo);
+                return true;
+            }
+        } catch (SQLException e) {
+            logger.severe("Errore durante il caricamento dei dettagli del ToDo: " + e.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    /**
+     * Condivide un ToDo con un utente con un'unica istruzione eseguita dal database, senza leggere
+     * le bacheche e i ToDo del destinatario. Ripetere la stessa condivisione non crea duplicati.
+     * @param idToDo L'ID del ToDo da condividere.
+     * @param nomeBacheca Il titolo della bacheca del destinatario in cui il ToDo compare, creata se non esiste.
+     * @param destinatarioUsername Il nome utente del destinatario.
+     * @return L'esito della condivisione.
+     */
+    public EsitoCondivisione condividiToDo(int idToDo, String nomeBacheca, String destinatarioUsername) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SHARE_SQL)) {
+            stmt.setString(1, destinatarioUsername);
+            stmt.setInt(2, idToDo);
+            stmt.setString(3, nomeBacheca);
+            stmt.setString(4, nomeBacheca);
+            stmt.setString(5, nomeBacheca);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                if (rs.getInt("destinatari") == 0) {
+                    return EsitoCondivisione.DESTINATARIO_NON_TROVATO;
+                }
+                if (rs.getInt("origini") == 0) {
+                    return EsitoCondivisione.TODO_NON_TROVATO;
+                }
+                rs.getInt("id_condiviso");
+                return rs.wasNull() ? EsitoCondivisione.GIA_PRESENTE : EsitoCondivisione.CREATO;
+            }
+        } catch (SQLException e) {
+            logger.severe("Errore durante la condivisione del ToDo: " + e.getMessage());
+            return EsitoCondivisione.ERRORE;
+        }
+    }
+
+    @Override
+    /**
+     * Condivide più ToDo con più utenti in un'unica transazione, con tre istruzioni in tutto:
+     * una per trovare i destinatari, una per creare le bacheche mancanti e una per registrare tutte le condivisioni.
+     * Le condivisioni già presenti vengono saltate grazie alla chiave primaria di todo_share, quindi l'operazione si può ripetere.
+     * @param idToDos Gli ID dei ToDo da condividere.
+     * @param destinatari I nomi utente dei destinatari.
+     * @return L'esito per ogni destinatario, nell'ordine ricevuto: CREATO se ha ricevuto almeno un ToDo nuovo,
+     *         GIA_PRESENTE se aveva già tutti i ToDo, TODO_NON_TROVATO se nessuno dei ToDo esiste.
+     */
+    public Map<String, EsitoCondivisione> condividiToDos(Collection<Integer> idToDos, Collection<String> destinatari) {
+        Map<String, EsitoCondivisione> esiti = new LinkedHashMap<>();
+        if (destinatari == null || destinatari.isEmpty()) {
+            return esiti;
+        }
+        for (String username : destinatari) {
+            esiti.put(username, EsitoCondivisione.DESTINATARIO_NON_TROVATO);
+        }
+        if (idToDos == null || idToDos.isEmpty()) {
+            esiti.replaceAll((username, esito) -> EsitoCondivisione.TODO_NON_TROVATO);
+            return esiti;
+        }
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Map<Integer, String> trovati = new LinkedHashMap<>();
+                long origini = 0;
+                Array idOrigine = conn.createArrayOf("integer", idToDos.toArray());
+                try (PreparedStatement stmt = conn.prepareStatement(SELECT_DESTINATARI_SQL)) {
+                    stmt.setArray(1, idOrigine);
+                    stmt.setArray(2, conn.createArrayOf("text", esiti.keySet().toArray()));
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            trovati.put(rs.getInt("id"), rs.getString("username"));
+                            origini = rs.getLong("origini");
+                        }
+                    }
+                }
+                if (trovati.isEmpty()) {
+                    conn.commit();
+                    return esiti;
+                }
+                if (origini == 0) {
+                    conn.commit();
+                    trovati.values().forEach(username -> esiti.put(username, EsitoCondivisione.TODO_NON_TROVATO));
+                    return esiti;
+                }
+                Array idDestinatari = conn.createArrayOf("integer", trovati.keySet().toArray());
+                try (PreparedStatement stmt = conn.prepareStatement(SHARE_MANY_BOARDS_SQL)) {
+                    stmt.setArray(1, idDestinatari);
+                    stmt.setArray(2, idOrigine);
+                    stmt.executeUpdate();
+                }
+                Map<Integer, Integer> nuove = new HashMap<>();
+                try (PreparedStatement stmt = conn.prepareStatement(SHARE_MANY_SQL)) {
+                    stmt.setArray(1, idDestinatari);
+                    stmt.setArray(2, idOrigine);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            nuove.merge(rs.getInt(1), 1, Integer::sum);
+                        }
+                    }
+                }
+                conn.commit();
+                trovati.forEach((id, username) -> esiti.put(username,
+                        nuove.containsKey(id) ? EsitoCondivisione.CREATO : EsitoCondivisione.GIA_PRESENTE));
+                logger.info("Condivisione multipla: " + nuove.values().stream().mapToInt(Integer::intValue).sum()
+                        + " condivisioni per " + nuove.size() + " destinatari");
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.severe("Errore durante la condivisione multipla dei ToDo: " + e.getMessage());
+            esiti.replaceAll((username, esito) -> EsitoCondivisione.ERRORE);
+        }
+        return esiti;
+    }
+
+    @Override
+    /**
+     * Segna tutti i ToDo di una specifica board come completati, esclusi quelli condivisi nella board da altri utenti.
+     * Vengono scritte e portate alla versione successiva solo le righe non ancora completate.
      * @param boardId L'ID della board per cui segnare i ToDo come completati.
      */
     public void markAllToDosAsCompletedByBoardId(int boardId) {
-        String sql = "UPDATE todo SET stato = ? WHERE id_board = ?";
-        try (PreparedStatement stmt = DBConnection.getConnection().prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(COMPLETE_BOARD_SQL)) {
             stmt.setString(1, StatoToDo.COMPLETATO.name());
             stmt.setInt(2, boardId);
+            stmt.setString(3, StatoToDo.COMPLETATO.name());
             stmt.executeUpdate();
         } catch (SQLException e) {
             logger.severe("Errore durante l'aggiornamento di tutti i ToDo a completato per board ID: " + e.getMessage());
@@ -1,6 +1,6 @@
 package dao.postgresimpl;
 
-import database.DBConnection;
+import database.ConnectionPool;
 import model.Utente;
 import dao.UtenteDAO;
 
@@ -15,19 +15,22 @@ import java.util.logging.Level;
  * Questa classe gestisce le operazioni di Creazione, Lettura, Aggiornamento ed eliminazione(CRUD) sugli utenti nel database PostgreSQL.
  */
 public class PostgresUtenteDAO implements UtenteDAO {
-    private final Connection connection;
+    private final ConnectionPool pool;
     private static final Logger LOGGER = Logger.getLogger(PostgresUtenteDAO.class.getName());
     private static final String PASSWORD_COLUMN = "password";
-    public PostgresUtenteDAO(Connection connection) {
-        this.connection = connection;
+    private static final String INSERT_SQL = "INSERT INTO utente(username,password) VALUES (?, ?) RETURNING id";
+    private static final String SELECT_BY_USERNAME_SQL = "SELECT id, username, password FROM utente WHERE username = ?";
+    private static final String SELECT_BY_ID_SQL = "SELECT id, username, password FROM utente WHERE id = ?";
+    public PostgresUtenteDAO(ConnectionPool pool) {
+        this.pool = pool;
     }
     @Override
     /** Aggiunge un nuovo utente al database.
      * @param utente L'Utente da aggiungere.
      */
     public void addUtente(Utente utente) {
-        String sql ="INSERT INTO utente(username,password) VALUES (?, ?) RETURNING id";
-        try(PreparedStatement stmt =DBConnection.getConnection().prepareStatement(sql)){
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
             stmt.setString(1, utente.getUsername());
             stmt.setString(2, utente.getPassword());
             ResultSet rs = stmt.executeQuery();
@@ -61,8 +64,8 @@ public class PostgresUtenteDAO implements UtenteDAO {
      * @return L'oggetto Utente corrispondente, o null se non trovato.
      */
     public Utente getUtenteByUsername(String username) {
-        String sql = "SELECT id, username, password FROM utente WHERE username = ?";
-        try (PreparedStatement stmt = DBConnection.getConnection().prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_USERNAME_SQL)) {
             stmt.setString(1, username);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -87,7 +90,8 @@ public class PostgresUtenteDAO implements UtenteDAO {
      */
     public void updateUtente(Utente utente) {
         String sql = "UPDATE utente SET password = ? WHERE username = ?";
-        try (PreparedStatement stmt = DBConnection.getConnection().prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, utente.getPassword());
             stmt.setString(2, utente.getUsername());
             stmt.executeUpdate();
@@ -104,7 +108,8 @@ public class PostgresUtenteDAO implements UtenteDAO {
      */
     public void deleteUtenteById(int id) {
         String sql = "DELETE FROM utente WHERE id = ?";
-        try (PreparedStatement stmt = DBConnection.getConnection().prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             stmt.executeUpdate();
         } catch (SQLException e) {
@@ -120,7 +125,8 @@ public class PostgresUtenteDAO implements UtenteDAO {
     public List<Utente> getAllUtenti() {
         List<Utente> utenti = new ArrayList<>();
         String sql = "SELECT id, username, password FROM utente";
-        try (Statement stmt = DBConnection.getConnection().createStatement();
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
                 String username = rs.getString("username");
@@ -140,8 +146,8 @@ public class PostgresUtenteDAO implements UtenteDAO {
      * @return L'Utente corrispondente, o null se non trovato.
      */
     public Utente getUtenteById(int id) {
-        String sql = "SELECT id, username, password FROM utente WHERE id = ?";
-        try (PreparedStatement stmt = DBConnection.getConnection().prepareStatement(sql)) {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -0,0 +1,189 @@
+package dao.postgresimpl;
+
+import model.CampoToDo;
+import model.StatoToDo;
+import model.ToDo;
+import model.ToDoSummary;
+import model.Utente;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converte le righe della query "todo LEFT JOIN utente" in oggetti ToDo.
+ * L'utente creatore viene letto dalla stessa riga, quindi caricare una bacheca costa una sola query.
+ * Un'istanza va usata per un solo result set: gli utenti già incontrati vengono riutilizzati,
+ * così tutti i ToDo dello stesso creatore condividono lo stesso oggetto Utente.
+ */
+class ToDoRowMapper {
+    /**
+     * Colonne da selezionare per usare questo mapper; la tabella todo va chiamata "t" e la tabella utente "u".
+     */
+    static final String COLUMNS = "t.id, t.titolo, t.descrizione, t.scadenza, t.colore, t.stato, t.url, t.img, "
+            + "t.posizione, t.id_utente, t.condiviso_da_utente, t.id_board, t.version, "
+            + "u.username AS creatore_username, u.password AS creatore_password";
+    /**
+     * Colonne da selezionare per mapSummary: solo quelle mostrate nelle liste, senza descrizione, URL, immagine e creatore.
+     * Con queste colonne non serve la join verso utente, ma "t" deve essere una delle viste qui sotto,
+     * che aggiungono la colonna id_board_condivisione.
+     */
+    static final String SUMMARY_COLUMNS = "t.id, t.titolo, t.scadenza, t.colore, t.stato, t.posizione, "
+            + "t.id_utente, t.condiviso_da_utente, t.id_board, t.version, t.id_board_condivisione";
+    /**
+     * Clausola FROM con la join verso il creatore.
+     */
+    static final String FROM = "todo t LEFT JOIN utente u ON u.id = t.id_utente";
+    /**
+     * Ramo delle viste con i ToDo condivisi tramite todo_share: la colonna condiviso_da_utente riporta
+     * il proprietario del ToDo e id_board_condivisione la bacheca del destinatario in cui il ToDo compare.
+     */
+    private static final String RAMO_CONDIVISI = "SELECT " + colonneVista("COALESCE(todo.condiviso_da_utente, proprietario.username)", "s.id_board")
+            + " FROM todo_share s JOIN todo ON todo.id = s.id_todo JOIN utente proprietario ON proprietario.id = todo.id_utente";
+    /**
+     * Vista dei ToDo di una bacheca, compresi quelli condivisi in essa; i parametri sono due volte l'ID della bacheca.
+     */
+    static final String VISTA_BOARD = "(SELECT " + colonneVista("todo.condiviso_da_utente", "NULL::integer")
+            + " FROM todo WHERE todo.id_board = ? UNION ALL " + RAMO_CONDIVISI + " WHERE s.id_board = ?) t";
+    /**
+     * Vista dei ToDo di un insieme di bacheche, compresi quelli condivisi in esse; i parametri sono due volte l'array degli ID.
+     */
+    static final String VISTA_BOARDS = "(SELECT " + colonneVista("todo.condiviso_da_utente", "NULL::integer")
+            + " FROM todo WHERE todo.id_board = ANY(?) UNION ALL " + RAMO_CONDIVISI + " WHERE s.id_board = ANY(?)) t";
+    /**
+     * Vista dei soli ToDo condivisi con un utente; il parametro è l'ID dell'utente.
+     */
+    static final String VISTA_CONDIVISI_CON = "(" + RAMO_CONDIVISI + " WHERE s.id_utente = ?) t";
+
+    private static final String COL_DESCRIZIONE = "descrizione";
+    private static final String COL_COLORE = "colore";
+    private static final String COL_TITOLO = "titolo";
+    private static final String COL_SCADENZA = "scadenza";
+    private static final String COL_STATO = "stato";
+    private static final String COL_POSIZIONE = "posizione";
+    private static final String COL_ID_BOARD = "id_board";
+    private static final String COL_ID_UTENTE = "id_utente";
+    private static final String COL_CONDIVISO_DA_UTENTE = "condiviso_da_utente";
+    private static final String COL_VERSION = "version";
+    private static final String COL_ID_BOARD_CONDIVISIONE = "id_board_condivisione";
+    private static final String COL_CREATORE_USERNAME = "creatore_username";
+    private static final String COL_CREATORE_PASSWORD = "creatore_password";
+
+    private final Map<Integer, Utente> utenti = new HashMap<>();
+
+    /**
+     * Converte la riga corrente del result set in un ToDo con il creatore già popolato.
+     * @param rs il result set posizionato sulla riga da leggere
+     * @return il ToDo letto
+     * @throws SQLException se la lettura delle colonne fallisce
+     */
+    ToDo map(ResultSet rs) throws SQLException {
+        Date scadenzaDate = rs.getDate(COL_SCADENZA);
+        LocalDate scadenzaLocalDate = (scadenzaDate != null) ? scadenzaDate.toLocalDate() : null;
+        int idUtenteCreatore = rs.getInt(COL_ID_UTENTE);
+        ToDo todo = new ToDo(
+                rs.getInt("id"),
+                rs.getString(COL_TITOLO),
+                rs.getString(COL_DESCRIZIONE),
+                scadenzaLocalDate,
+                rs.getString(COL_COLORE),
+                rs.getString(COL_STATO),
+                rs.getString("url"),
+                rs.getString("img"),
+                rs.getInt(COL_POSIZIONE),
+                idUtenteCreatore,
+                rs.getString(COL_CONDIVISO_DA_UTENTE),
+                rs.getInt(COL_ID_BOARD)
+        );
+        todo.setVersione(rs.getInt(COL_VERSION));
+        if (idUtenteCreatore > 0) { // Assuming ID 0 is invalid or not used for real users
+            todo.setUtenteCreatore(mapCreatore(rs, idUtenteCreatore));
+        }
+        return todo;
+    }
+
+    /**
+     * Converte la riga corrente del result set, letta con SUMMARY_COLUMNS, in un riepilogo di ToDo.
+     * @param rs il result set posizionato sulla riga da leggere
+     * @return il riepilogo letto
+     * @throws SQLException se la lettura delle colonne fallisce
+     */
+    static ToDoSummary mapSummary(ResultSet rs) throws SQLException {
+        Date scadenzaDate = rs.getDate(COL_SCADENZA);
+        return new ToDoSummary(
+                rs.getInt("id"),
+                rs.getString(COL_TITOLO),
+                (scadenzaDate != null) ? scadenzaDate.toLocalDate() : null,
+                rs.getString(COL_COLORE),
+                StatoToDo.valueOf(rs.getString(COL_STATO)),
+                rs.getInt(COL_POSIZIONE),
+                rs.getInt(COL_ID_UTENTE),
+                rs.getString(COL_CONDIVISO_DA_UTENTE),
+                rs.getInt(COL_ID_BOARD),
+                rs.getInt(COL_VERSION),
+                rs.getInt(COL_ID_BOARD_CONDIVISIONE)
+        );
+    }
+
+    /**
+     * Converte la riga corrente di una delle viste in un ToDo, come map, leggendo anche la bacheca
+     * in cui il ToDo compare per condivisione.
+     * @param rs il result set posizionato sulla riga da leggere, letta con COLUMNS e id_board_condivisione
+     * @return il ToDo letto
+     * @throws SQLException se la lettura delle colonne fallisce
+     */
+    ToDo mapVista(ResultSet rs) throws SQLException {
+        ToDo todo = map(rs);
+        todo.setIdBoardCondivisione(rs.getInt(COL_ID_BOARD_CONDIVISIONE));
+        return todo;
+    }
+
+    /**
+     * Restituisce le colonne di todo selezionate da ogni ramo delle viste, con le stesse etichette della tabella.
+     */
+    private static String colonneVista(String condivisoDa, String boardCondivisione) {
+        return "todo.id, todo.titolo, todo.descrizione, todo.scadenza, todo.colore, todo.stato, todo.url, todo.img, "
+                + "todo.posizione, todo.id_utente, " + condivisoDa + " AS condiviso_da_utente, todo.id_board, todo.version, "
+                + boardCondivisione + " AS id_board_condivisione";
+    }
+
+    /**
+     * Completa un ToDo caricato da un riepilogo con descrizione, URL, immagine e creatore della riga corrente,
+     * letta con COLUMNS.
+     * @param rs il result set posizionato sulla riga del ToDo
+     * @param todo il ToDo da completare
+     * @throws SQLException se la lettura delle colonne fallisce
+     */
+    void mapDetails(ResultSet rs, ToDo todo) throws SQLException {
+        todo.setDescrizione(rs.getString(COL_DESCRIZIONE));
+        todo.setUrl(rs.getString("url"));
+        todo.setImg(rs.getString("img"));
+        int idUtenteCreatore = rs.getInt(COL_ID_UTENTE);
+        if (idUtenteCreatore > 0) {
+            todo.setUtenteCreatore(mapCreatore(rs, idUtenteCreatore));
+        }
+        todo.pulisciCampiModificati(EnumSet.of(CampoToDo.DESCRIZIONE, CampoToDo.URL, CampoToDo.IMG));
+        todo.setDettagliCaricati(true);
+    }
+
+    /**
+     * Restituisce il creatore della riga corrente, riusando l'istanza se è già stato letto.
+     */
+    private Utente mapCreatore(ResultSet rs, int idUtente) throws SQLException {
+        Utente utente = utenti.get(idUtente);
+        if (utente == null) {
+            String username = rs.getString(COL_CREATORE_USERNAME);
+            if (username == null) {
+                return null; // utente non più presente nel database
+            }
+            utente = new Utente(username, rs.getString(COL_CREATORE_PASSWORD));
+            utente.setId(idUtente);
+            utenti.put(idUtente, utente);
+        }
+        return utente;
+    }
+}
@@ -0,0 +1,270 @@
+package database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Questa classe implementa un pool di connessioni JDBC limitato.
+ * Le DAO prendono in prestito una connessione per ogni operazione e la restituiscono chiudendola
+ * (tipicamente con try-with-resources), così più thread possono lavorare sul database in parallelo
+ * senza aprire una connessione per ogni query.
+ * Il pool gestisce:
+ * - un numero minimo di connessioni inattive e un numero massimo di connessioni totali;
+ * - un timeout per ogni richiesta di connessione;
+ * - la validazione della connessione al momento del prestito;
+ * - la chiusura delle connessioni inattive da troppo tempo;
+ * - il rilevamento delle connessioni non restituite, con lo stack di chi le ha prese;
+ * - una cache dei PreparedStatement per ogni connessione fisica, così le query frequenti
+ *   non vengono preparate di nuovo a ogni prestito.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    private final String url;
+    private final Properties properties;
+    private final PoolConfig config;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> inUse = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    /**
+     * Costruttore del pool. Apre subito le connessioni minime richieste dalla configurazione,
+     * in modo che un database irraggiungibile venga segnalato all'avvio.
+     * @param url l'URL JDBC del database
+     * @param properties le proprietà di connessione (utente, password, parametri del driver)
+     * @param config la configurazione del pool
+     * @throws SQLException se non è possibile aprire le connessioni iniziali
+     */
+    public ConnectionPool(String url, Properties properties, PoolConfig config) throws SQLException {
+        if (config.getMaxSize() <= 0 || config.getMinIdle() < 0 || config.getMinIdle() > config.getMaxSize()) {
+            throw new IllegalArgumentException("Configurazione del pool non valida: minIdle="
+                    + config.getMinIdle() + ", maxSize=" + config.getMaxSize());
+        }
+        this.url = url;
+        this.properties = properties;
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+        try {
+            for (int i = 0; i < config.getMinIdle(); i++) {
+                idle.offerLast(openConnection());
+            }
+        } catch (SQLException e) {
+            idle.forEach(PooledConnection::closeQuietly);
+            throw e;
+        }
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getHousekeepingIntervalMillis();
+        housekeeper.scheduleWithFixedDelay(this::housekeeping, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Questo metodo prende in prestito una connessione dal pool.
+     * La connessione va restituita chiamando close(), che non chiude la connessione fisica.
+     * @return una connessione valida
+     * @throws SQLTimeoutException se nessuna connessione si libera entro il timeout configurato
+     * @throws SQLException se il pool è chiuso o non è possibile aprire una nuova connessione
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Il pool di connessioni è chiuso.");
+        }
+        acquirePermit();
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = openConnection();
+            }
+            pooled.onBorrow(config.getLeakDetectionThresholdMillis() > 0
+                    ? new Throwable("Connessione presa in prestito qui") : null);
+            inUse.add(pooled);
+            return pooled.newHandle(this);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Attende un posto libero nel pool rispettando il timeout configurato.
+     */
+    private void acquirePermit() throws SQLException {
+        try {
+            if (!permits.tryAcquire(config.getBorrowTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Nessuna connessione disponibile entro "
+                        + config.getBorrowTimeoutMillis() + " ms (attive: " + inUse.size() + ").");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Attesa di una connessione interrotta.", e);
+        }
+    }
+
+    /**
+     * Preleva la connessione inattiva usata più di recente, scartando quelle non più valide.
+     * @return una connessione valida, o null se non ce ne sono di inattive
+     */
+    private PooledConnection takeValidIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isValid(pooled)) {
+                return pooled;
+            }
+            LOGGER.warning("Connessione non valida scartata dal pool.");
+            pooled.closeQuietly();
+        }
+        return null;
+    }
+
+    /**
+     * Verifica che una connessione sia ancora utilizzabile.
+     * Le connessioni usate da pochissimo non vengono rivalidate per risparmiare un round trip.
+     */
+    private boolean isValid(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.getLastUsedAt() < config.getValidationBypassMillis()) {
+            return true;
+        }
+        try {
+            return pooled.getPhysical().isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Apre una nuova connessione fisica verso il database.
+     */
+    private PooledConnection openConnection() throws SQLException {
+        return new PooledConnection(DriverManager.getConnection(url, properties), config.getStatementCacheSize());
+    }
+
+    /**
+     * Riceve una connessione restituita dal proxy, ne ripristina lo stato e la rimette tra quelle inattive.
+     * @param pooled la connessione restituita
+     */
+    void release(PooledConnection pooled) {
+        inUse.remove(pooled);
+        try {
+            Connection physical = pooled.getPhysical();
+            if (!pooled.isBroken() && !physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (!pooled.isBroken()) {
+                physical.clearWarnings();
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Impossibile ripristinare la connessione restituita: " + e.getMessage(), e); //NOSONAR
+            pooled.markBroken();
+        }
+        pooled.onReturn();
+        if (closed || pooled.isBroken()) {
+            pooled.closeQuietly();
+        } else {
+            idle.offerFirst(pooled);
+        }
+        permits.release();
+    }
+
+    /**
+     * Attività periodica: segnala i leak, chiude le connessioni inattive da troppo tempo
+     * e riporta il numero di connessioni inattive al minimo configurato.
+     */
+    private void housekeeping() {
+        try {
+            detectLeaks();
+            evictIdle();
+            fillIdle();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Errore durante la manutenzione del pool: " + e.getMessage(), e); //NOSONAR
+        }
+    }
+
+    private void detectLeaks() {
+        long threshold = config.getLeakDetectionThresholdMillis();
+        if (threshold <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : inUse) {
+            long borrowedAt = pooled.getBorrowedAt();
+            if (borrowedAt > 0 && !pooled.isLeakReported() && now - borrowedAt > threshold) {
+                pooled.setLeakReported(true);
+                LOGGER.log(Level.WARNING, "Possibile leak: connessione non restituita da " + (now - borrowedAt) + " ms.", //NOSONAR
+                        pooled.getBorrowStack());
+            }
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+        while (oldestFirst.hasNext() && idle.size() > config.getMinIdle()) {
+            PooledConnection pooled = oldestFirst.next();
+            if (now - pooled.getLastUsedAt() > config.getIdleTimeoutMillis() && idle.remove(pooled)) {
+                pooled.closeQuietly();
+            }
+        }
+    }
+
+    private void fillIdle() {
+        while (!closed && idle.size() < config.getMinIdle()
+                && idle.size() + inUse.size() < config.getMaxSize()) {
+            try {
+                idle.offerLast(openConnection());
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Impossibile aprire una connessione di riserva: " + e.getMessage(), e); //NOSONAR
+                return;
+            }
+        }
+    }
+
+    /**
+     * Questo metodo restituisce il numero di connessioni attualmente in prestito.
+     * @return numero di connessioni attive
+     */
+    public int getActiveCount() {
+        return inUse.size();
+    }
+
+    /**
+     * Questo metodo restituisce il numero di connessioni inattive pronte all'uso.
+     * @return numero di connessioni inattive
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Chiude il pool: le connessioni inattive vengono chiuse subito,
+     * quelle in prestito verranno chiuse al momento della restituzione.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            pooled.closeQuietly();
+        }
+        LOGGER.info("Pool di connessioni chiuso.");
+    }
+}
@@ -2,59 +2,94 @@
 package database;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Questa classe gestisce la connessione al database PostgreSQL.
+ * Questa classe gestisce l'accesso al database PostgreSQL.
+ * Crea e conserva il pool di connessioni condiviso da tutte le DAO.
+ * Alla creazione del pool porta lo schema all'ultima versione tramite il MigrationRunner.
  */
 public class DBConnection {
-    private static Connection connection = null;
+    private static ConnectionPool pool = null;
+    private static int versioneSchema = 0;
     private static final String URL = "jdbc:postgresql://localhost:5432/ToDo"; // Sostituisci con il tuo DB
     private static final String USER = "postgres"; // Sostituisci con il tuo username
     private static final String PASSWORD = "admin"; // Sostituisci con la tua password
     private static final Logger LOGGER = Logger.getLogger(DBConnection.class.getName());
     private DBConnection() {
     }
-/**
-     * Questo metodo restituisce una connessione al database PostgreSQL.
-     * Se la connessione è già stata stabilita, restituisce quella esistente.
+
+    /**
+     * Questo metodo restituisce il pool di connessioni al database PostgreSQL.
+     * Se il pool è già stato creato, restituisce quello esistente.
+     * Alla prima chiamata applica le migrazioni dello schema; se non riescono il pool viene chiuso,
+     * perché le DAO si basano sulle colonne e sugli indici creati dalle migrazioni.
      *
-     * @return Connection oggetto di connessione al database
+     * @return il pool di connessioni, o null se non è stato possibile connettersi al database o aggiornare lo schema
      */
-    public static Connection getConnection() {
-        if (connection == null) {
+    public static synchronized ConnectionPool getPool() {
+        if (pool == null) {
             try {
                 Class.forName("org.postgresql.Driver");
-                connection = DriverManager.getConnection(URL, USER, PASSWORD);
-               LOGGER.info("Connessione al database stabilita.");
+                Properties properties = new Properties();
+                properties.setProperty("user", USER);
+                properties.setProperty("password", PASSWORD);
+                properties.setProperty("reWriteBatchedInserts", "true"); // i batch di INSERT diventano INSERT multi-riga
+                // Gli statement restano in cache nel pool: dal secondo utilizzo diventano statement preparati lato server,
+                // con il piano già calcolato, mentre le query eseguite una sola volta non occupano risorse sul server.
+                properties.setProperty("prepareThreshold", "2");
+                pool = new ConnectionPool(URL, properties, new PoolConfig());
+                LOGGER.info("Connessione al database stabilita.");
+                versioneSchema = new MigrationRunner(pool).esegui();
             } catch (ClassNotFoundException e) {
                 LOGGER.severe("Errore: Driver PostgreSQL non trovato.");
-                e.printStackTrace();
             } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Errore di connessione al database", e);
-                e.printStackTrace();
+                LOGGER.log(Level.SEVERE, "Errore di connessione al database o di aggiornamento dello schema", e);
+                if (pool != null) {
+                    pool.close();
+                    pool = null;
+                }
             }
         }
-        return connection;
+        return pool;
     }
 
     /**
-     * Questo metodo chiude la connessione al database se è aperta.
-     * Se la connessione è già chiusa, non fa nulla.
+     * Questo metodo restituisce la versione dello schema del database applicata all'avvio.
+     *
+     * @return la versione dello schema, o 0 se il pool non è ancora stato creato
      */
-    public static void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                connection = null;
-               LOGGER.info("Connessione al database chiusa.");
-            } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Errore durante la chiusura della connessione al database:", e);
-                e.printStackTrace();
-            }
+    public static synchronized int getVersioneSchema() {
+        return versioneSchema;
+    }
+
+    /**
+     * Questo metodo prende in prestito una connessione dal pool.
+     * La connessione va chiusa al termine dell'operazione per restituirla al pool.
+     *
+     * @return Connection oggetto di connessione al database
+     * @throws SQLException se il pool non è disponibile o non ci sono connessioni libere
+     */
+    public static Connection getConnection() throws SQLException {
+        ConnectionPool current = getPool();
+        if (current == null) {
+            throw new SQLException("Pool di connessioni non disponibile.");
+        }
+        return current.getConnection();
+    }
+
+    /**
+     * Questo metodo chiude il pool e tutte le connessioni al database.
+     * Se il pool non è mai stato creato, non fa nulla.
+     */
+    public static synchronized void closeConnection() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+            LOGGER.info("Connessione al database chiusa.");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,214 @@
+package database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Questa classe porta lo schema del database all'ultima versione all'avvio dell'applicazione.
+ * Le migrazioni sono script SQL nel classpath, sotto db/migration, con nome V&lt;versione&gt;__&lt;descrizione&gt;.sql,
+ * e vengono eseguite in ordine di versione.
+ * Ogni migrazione applicata viene registrata nella tabella schema_migrations con l'hash SHA-256 del suo script:
+ * se uno script già applicato viene modificato, l'hash non corrisponde più e l'avvio si ferma invece di lasciare
+ * installazioni diverse con schemi diversi.
+ * Tutte le migrazioni in sospeso vengono applicate in un'unica transazione, protetta da un advisory lock,
+ * così due istanze avviate insieme non eseguono gli stessi script due volte.
+ */
+public class MigrationRunner {
+    private static final Logger logger = Logger.getLogger(MigrationRunner.class.getName());
+    private static final String CARTELLA = "db/migration/";
+    /**
+     * Script delle migrazioni, in ordine di versione. Ogni nuova migrazione va aggiunta in fondo.
+     */
+    private static final List<String> MIGRAZIONI = List.of(
+            "V1__indici.sql",
+            "V2__versioni.sql",
+            "V3__condivisione.sql",
+            "V4__todo_share.sql",
+            "V5__rimozione_indice_condivisione.sql"
+    );
+    /**
+     * Chiave dell'advisory lock che serializza le esecuzioni concorrenti delle migrazioni.
+     */
+    private static final long CHIAVE_LOCK = 0x546f446f4d6967L;
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(?)";
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS schema_migrations ("
+            + "version integer PRIMARY KEY, descrizione text NOT NULL, checksum char(64) NOT NULL, "
+            + "applicata_il timestamptz NOT NULL DEFAULT now())";
+    private static final String SELECT_APPLICATE_SQL = "SELECT version, checksum FROM schema_migrations";
+    private static final String INSERT_SQL = "INSERT INTO schema_migrations (version, descrizione, checksum) VALUES (?, ?, ?)";
+    /**
+     * Controlli eseguiti prima di una migrazione non ancora applicata, per versione.
+     * Ogni query restituisce nella prima colonna una descrizione dei dati che impedirebbero la migrazione:
+     * se ne restituisce almeno una, la migrazione non viene eseguita e l'errore elenca i dati da correggere.
+     * Stanno qui e non negli script perché modificare uno script già applicato ne cambierebbe l'hash.
+     */
+    private static final Map<Integer, List<String>> CONTROLLI = Map.of(
+            1, List.of(
+                    "SELECT 'board \"' || titolo || '\" dell''utente ' || id_utente || ' (' || count(*) || ' copie)'"
+                            + " FROM board GROUP BY id_utente, titolo HAVING count(*) > 1",
+                    "SELECT 'utente \"' || username || '\" (' || count(*) || ' copie)'"
+                            + " FROM utente GROUP BY username HAVING count(*) > 1"),
+            3, List.of(
+                    "SELECT 'ToDo \"' || titolo || '\" condiviso da ' || condiviso_da_utente || ' nella board ' || id_board"
+                            + " || ' (' || count(*) || ' copie)'"
+                            + " FROM todo WHERE condiviso_da_utente IS NOT NULL AND titolo IS NOT NULL"
+                            + " GROUP BY id_board, titolo, condiviso_da_utente HAVING count(*) > 1")
+    );
+    /**
+     * Numero massimo di righe riportate nel messaggio di errore di un controllo.
+     */
+    private static final int MAX_RIGHE_CONTROLLO = 20;
+
+    private final ConnectionPool pool;
+
+    /**
+     * Costruttore dell'esecutore delle migrazioni.
+     * @param pool il pool da cui prendere la connessione su cui applicare le migrazioni
+     */
+    public MigrationRunner(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Applica le migrazioni non ancora registrate e verifica l'hash di quelle già applicate.
+     * Se una migrazione fallisce, nessuna delle migrazioni in sospeso viene applicata.
+     * @return la versione dello schema dopo l'esecuzione
+     * @throws SQLException se una migrazione fallisce, uno script manca o un hash non corrisponde
+     */
+    public int esegui() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement lock = conn.prepareStatement(LOCK_SQL)) {
+                    lock.setLong(1, CHIAVE_LOCK);
+                    lock.execute();
+                }
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(CREATE_TABLE_SQL);
+                }
+                Map<Integer, String> applicate = leggiApplicate(conn);
+                int versioneSchema = 0;
+                for (String nome : MIGRAZIONI) {
+                    int versione = versioneDi(nome);
+                    String script = leggiScript(nome);
+                    String checksum = checksum(script);
+                    String registrato = applicate.get(versione);
+                    if (registrato == null) {
+                        controlla(conn, versione, nome);
+                        applica(conn, versione, nome, script, checksum);
+                    } else if (!registrato.trim().equals(checksum)) {
+                        throw new SQLException("La migrazione " + nome + " è stata modificata dopo essere stata applicata");
+                    }
+                    versioneSchema = Math.max(versioneSchema, versione);
+                }
+                for (int versione : applicate.keySet()) {
+                    versioneSchema = Math.max(versioneSchema, versione);
+                }
+                conn.commit();
+                logger.info("Schema del database alla versione " + versioneSchema);
+                return versioneSchema;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static Map<Integer, String> leggiApplicate(Connection conn) throws SQLException {
+        Map<Integer, String> applicate = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SELECT_APPLICATE_SQL)) {
+            while (rs.next()) {
+                applicate.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+        return applicate;
+    }
+
+    /**
+     * Esegue i controlli di una migrazione prima di applicarla, ad esempio la ricerca dei duplicati
+     * che impedirebbero la creazione di un indice univoco.
+     * @throws SQLException se un controllo trova dati da correggere, con l'elenco di quei dati
+     */
+    private static void controlla(Connection conn, int versione, String nome) throws SQLException {
+        List<String> problemi = new ArrayList<>();
+        for (String sql : CONTROLLI.getOrDefault(versione, List.of())) {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next() && problemi.size() < MAX_RIGHE_CONTROLLO) {
+                    problemi.add(rs.getString(1));
+                }
+            }
+        }
+        if (!problemi.isEmpty()) {
+            throw new SQLException("La migrazione " + nome + " non può essere applicata, correggere prima questi dati: "
+                    + String.join(", ", problemi));
+        }
+    }
+
+    /**
+     * Esegue lo script di una migrazione e la registra in schema_migrations, nella transazione in corso.
+     */
+    private static void applica(Connection conn, int versione, String nome, String script, String checksum) throws SQLException {
+        logger.info("Applicazione della migrazione " + nome);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(script);
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+            stmt.setInt(1, versione);
+            stmt.setString(2, nome.substring(nome.indexOf("__") + 2, nome.length() - ".sql".length()));
+            stmt.setString(3, checksum);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Estrae la versione dal nome dello script, ad esempio 2 da "V2__versioni.sql".
+     */
+    private static int versioneDi(String nome) throws SQLException {
+        int separatore = nome.indexOf("__");
+        try {
+            return Integer.parseInt(nome.substring(1, separatore));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new SQLException("Nome di migrazione non valido: " + nome, e);
+        }
+    }
+
+    private static String leggiScript(String nome) throws SQLException {
+        try (InputStream in = MigrationRunner.class.getClassLoader().getResourceAsStream(CARTELLA + nome)) {
+            if (in == null) {
+                throw new SQLException("Script di migrazione non trovato: " + CARTELLA + nome);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Impossibile leggere la migrazione " + nome, e);
+        }
+    }
+
+    /**
+     * Calcola l'hash SHA-256 dello script, ignorando le differenze tra fine riga Windows e Unix.
+     */
+    private static String checksum(String script) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] normalizzato = script.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(digest.digest(normalizzato));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponibile", e);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package database;
+
+/**
+ * Questa classe raccoglie i parametri di configurazione del pool di connessioni.
+ * I valori di default sono pensati per l'applicazione desktop: poche connessioni sempre pronte
+ * e un limite massimo che protegge il database quando molti utenti lavorano in contemporanea.
+ */
+public class PoolConfig {
+    private int minIdle = 2;
+    private int maxSize = 10;
+    private long idleTimeoutMillis = 10 * 60 * 1000L;
+    private long borrowTimeoutMillis = 5_000L;
+    private long leakDetectionThresholdMillis = 30_000L;
+    private int validationTimeoutSeconds = 2;
+    private long validationBypassMillis = 500L;
+    private long housekeepingIntervalMillis = 30_000L;
+    private int statementCacheSize = 64;
+
+    /**
+     * Questo metodo restituisce il numero minimo di connessioni inattive da tenere pronte.
+     * @return numero minimo di connessioni inattive
+     */
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    /**
+     * Questo metodo imposta il numero minimo di connessioni inattive da tenere pronte.
+     * @param minIdle numero minimo di connessioni inattive
+     */
+    public void setMinIdle(int minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    /**
+     * Questo metodo restituisce il numero massimo di connessioni fisiche aperte dal pool.
+     * @return numero massimo di connessioni
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Questo metodo imposta il numero massimo di connessioni fisiche aperte dal pool.
+     * @param maxSize numero massimo di connessioni
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Questo metodo restituisce dopo quanti millisecondi di inattività una connessione viene chiusa.
+     * @return tempo massimo di inattività in millisecondi
+     */
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    /**
+     * Questo metodo imposta dopo quanti millisecondi di inattività una connessione viene chiusa.
+     * @param idleTimeoutMillis tempo massimo di inattività in millisecondi
+     */
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Questo metodo restituisce quanto a lungo una richiesta attende una connessione libera.
+     * @return tempo massimo di attesa in millisecondi
+     */
+    public long getBorrowTimeoutMillis() {
+        return borrowTimeoutMillis;
+    }
+
+    /**
+     * Questo metodo imposta quanto a lungo una richiesta attende una connessione libera.
+     * @param borrowTimeoutMillis tempo massimo di attesa in millisecondi
+     */
+    public void setBorrowTimeoutMillis(long borrowTimeoutMillis) {
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+    }
+
+    /**
+     * Questo metodo restituisce dopo quanti millisecondi una connessione non restituita viene segnalata.
+     * Un valore minore o uguale a zero disabilita il rilevamento.
+     * @return soglia di rilevamento dei leak in millisecondi
+     */
+    public long getLeakDetectionThresholdMillis() {
+        return leakDetectionThresholdMillis;
+    }
+
+    /**
+     * Questo metodo imposta dopo quanti millisecondi una connessione non restituita viene segnalata.
+     * @param leakDetectionThresholdMillis soglia di rilevamento dei leak in millisecondi, 0 per disabilitarlo
+     */
+    public void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) {
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+    }
+
+    /**
+     * Questo metodo restituisce il timeout usato per verificare che una connessione sia ancora valida.
+     * @return timeout di validazione in secondi
+     */
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    /**
+     * Questo metodo imposta il timeout usato per verificare che una connessione sia ancora valida.
+     * @param validationTimeoutSeconds timeout di validazione in secondi
+     */
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    /**
+     * Questo metodo restituisce l'intervallo entro il quale una connessione appena usata non viene rivalidata.
+     * @return intervallo in millisecondi
+     */
+    public long getValidationBypassMillis() {
+        return validationBypassMillis;
+    }
+
+    /**
+     * Questo metodo imposta l'intervallo entro il quale una connessione appena usata non viene rivalidata.
+     * @param validationBypassMillis intervallo in millisecondi
+     */
+    public void setValidationBypassMillis(long validationBypassMillis) {
+        this.validationBypassMillis = validationBypassMillis;
+    }
+
+    /**
+     * Questo metodo restituisce ogni quanti millisecondi il pool controlla leak e connessioni inattive.
+     * @return intervallo di manutenzione in millisecondi
+     */
+    public long getHousekeepingIntervalMillis() {
+        return housekeepingIntervalMillis;
+    }
+
+    /**
+     * Questo metodo imposta ogni quanti millisecondi il pool controlla leak e connessioni inattive.
+     * @param housekeepingIntervalMillis intervallo di manutenzione in millisecondi
+     */
+    public void setHousekeepingIntervalMillis(long housekeepingIntervalMillis) {
+        this.housekeepingIntervalMillis = housekeepingIntervalMillis;
+    }
+
+    /**
+     * Questo metodo restituisce quanti PreparedStatement tenere aperti per ogni connessione fisica.
+     * @return dimensione della cache degli statement, 0 se disattivata
+     */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * Questo metodo imposta quanti PreparedStatement tenere aperti per ogni connessione fisica.
+     * @param statementCacheSize dimensione della cache degli statement, 0 per disattivarla
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+}
@@ -0,0 +1,247 @@
+package database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Questa classe rappresenta una connessione fisica gestita dal pool.
+ * Ad ogni prestito viene creato un nuovo proxy di {@link Connection}: la chiamata a close() sul proxy
+ * restituisce la connessione al pool invece di chiuderla, e il proxy non è più utilizzabile.
+ * Le chiamate a prepareStatement(String) usano la cache degli statement della connessione fisica:
+ * lo statement consegnato è a sua volta un proxy, la cui chiusura lo rimette in cache.
+ */
+class PooledConnection {
+    private final Connection physical;
+    private final long createdAt;
+    private volatile long lastUsedAt;
+    private volatile long borrowedAt;
+    private volatile Throwable borrowStack;
+    private volatile boolean leakReported;
+    private volatile boolean broken;
+    private final StatementCache statementCache;
+
+    PooledConnection(Connection physical, int statementCacheSize) {
+        this.physical = physical;
+        this.statementCache = new StatementCache(statementCacheSize);
+        this.createdAt = System.currentTimeMillis();
+        this.lastUsedAt = createdAt;
+    }
+
+    Connection getPhysical() {
+        return physical;
+    }
+
+    long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    long getBorrowedAt() {
+        return borrowedAt;
+    }
+
+    Throwable getBorrowStack() {
+        return borrowStack;
+    }
+
+    boolean isLeakReported() {
+        return leakReported;
+    }
+
+    void setLeakReported(boolean leakReported) {
+        this.leakReported = leakReported;
+    }
+
+    boolean isBroken() {
+        return broken;
+    }
+
+    void markBroken() {
+        this.broken = true;
+    }
+
+    /**
+     * Registra il prestito della connessione.
+     * @param stack lo stack del chiamante, o null se il rilevamento dei leak è disabilitato
+     */
+    void onBorrow(Throwable stack) {
+        this.borrowedAt = System.currentTimeMillis();
+        this.borrowStack = stack;
+        this.leakReported = false;
+    }
+
+    /**
+     * Registra la restituzione della connessione al pool.
+     */
+    void onReturn() {
+        statementCache.rilasciaTutti();
+        this.lastUsedAt = System.currentTimeMillis();
+        this.borrowedAt = 0L;
+        this.borrowStack = null;
+    }
+
+    /**
+     * Crea il proxy da consegnare al chiamante per un singolo prestito.
+     * @param pool il pool a cui restituire la connessione alla chiusura
+     * @return il proxy della connessione
+     */
+    Connection newHandle(ConnectionPool pool) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new Handle(pool));
+    }
+
+    /**
+     * Chiude la connessione fisica ignorando eventuali errori.
+     */
+    void closeQuietly() {
+        statementCache.chiudiTutti();
+        try {
+            physical.close();
+        } catch (SQLException ignored) { /* la connessione viene comunque scartata */ }
+    }
+
+    /**
+     * Gestore delle chiamate sul proxy: inoltra tutto alla connessione fisica
+     * tranne close(), isClosed() e le chiamate successive alla chiusura.
+     */
+    private final class Handle implements InvocationHandler {
+        private final ConnectionPool pool;
+        private boolean closed;
+
+        private Handle(ConnectionPool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        pool.release(PooledConnection.this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical + (closed ? ", restituita" : "") + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("La connessione è già stata restituita al pool.");
+            }
+            if ("prepareStatement".equals(method.getName()) && args.length == 1 && statementCache.isAttiva()) {
+                return prepareCached((Connection) proxy, (String) args[0]);
+            }
+            return invokeOn(physical, method, args);
+        }
+
+        /**
+         * Restituisce lo statement in cache per la query, preparandolo se manca.
+         * Se la stessa query è già in uso in questo prestito, prepara uno statement normale fuori dalla cache.
+         */
+        private PreparedStatement prepareCached(Connection proxy, String sql) throws SQLException {
+            PreparedStatement statement = statementCache.prendi(sql);
+            if (statement == null) {
+                try {
+                    statement = physical.prepareStatement(sql);
+                } catch (SQLException e) {
+                    if (isConnectionError(e)) {
+                        markBroken();
+                    }
+                    throw e;
+                }
+                if (!statementCache.aggiungi(sql, statement)) {
+                    return statement;
+                }
+            }
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new StatementHandle(this, proxy, statement));
+        }
+    }
+
+    /**
+     * Gestore delle chiamate su uno statement in cache: close() lo rimette in cache
+     * e lo statement non è più utilizzabile dopo la chiusura o dopo la restituzione della connessione.
+     */
+    private final class StatementHandle implements InvocationHandler {
+        private final Handle connection;
+        private final Connection connectionProxy;
+        private final PreparedStatement statement;
+        private boolean closed;
+
+        private StatementHandle(Handle connection, Connection connectionProxy, PreparedStatement statement) {
+            this.connection = connection;
+            this.connectionProxy = connectionProxy;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        if (!connection.closed) {
+                            statementCache.restituisci(statement);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || connection.closed || statement.isClosed();
+                case "getConnection":
+                    return connectionProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + statement + (closed ? ", chiuso" : "") + "]";
+                default:
+                    break;
+            }
+            if (closed || connection.closed) {
+                throw new SQLException("Lo statement è già stato chiuso.");
+            }
+            return invokeOn(statement, method, args);
+        }
+    }
+
+    /**
+     * Inoltra una chiamata all'oggetto JDBC reale, segnando la connessione come rotta
+     * se l'errore indica che non è più utilizzabile.
+     */
+    private Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException && isConnectionError(sqlException)) {
+                markBroken();
+            }
+            throw cause;
+        }
+    }
+
+    /**
+     * Verifica se un errore indica che la connessione fisica non è più utilizzabile
+     * (SQLState della classe 08, "connection exception").
+     */
+    private static boolean isConnectionError(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+}
@@ -0,0 +1,142 @@
+package database;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Cache dei PreparedStatement di una singola connessione fisica, indicizzati per testo SQL.
+ * Uno statement in cache viene consegnato a un solo chiamante alla volta; alla chiusura logica
+ * torna disponibile, con i parametri azzerati e il result set chiuso, invece di essere chiuso davvero.
+ * Così il driver non deve analizzare di nuovo la query e, superata la soglia prepareThreshold,
+ * la esegue come statement preparato lato server con il piano già calcolato.
+ * Quando la cache è piena viene chiuso lo statement libero usato meno di recente.
+ */
+class StatementCache {
+    private static final Logger LOGGER = Logger.getLogger(StatementCache.class.getName());
+
+    private final int maxSize;
+    private final Map<String, Voce> voci = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Costruttore della cache.
+     * @param maxSize il numero massimo di statement tenuti aperti, 0 per disattivare la cache
+     */
+    StatementCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    boolean isAttiva() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Prende lo statement in cache per una query, se esiste ed è libero.
+     * @param sql il testo della query
+     * @return lo statement, ora in uso, o null se va preparato
+     */
+    synchronized PreparedStatement prendi(String sql) {
+        Voce voce = voci.get(sql);
+        if (voce == null || voce.inUso) {
+            return null;
+        }
+        voce.inUso = true;
+        return voce.statement;
+    }
+
+    /**
+     * Aggiunge alla cache uno statement appena preparato, già in uso da parte del chiamante.
+     * @param sql il testo della query
+     * @param statement lo statement preparato
+     * @return true se lo statement è stato messo in cache, false se la query ha già uno statement in uso
+     */
+    synchronized boolean aggiungi(String sql, PreparedStatement statement) {
+        if (voci.containsKey(sql)) {
+            return false;
+        }
+        voci.put(sql, new Voce(statement));
+        Iterator<Voce> menoUsate = voci.values().iterator();
+        while (voci.size() > maxSize && menoUsate.hasNext()) {
+            Voce voce = menoUsate.next();
+            if (!voce.inUso) {
+                menoUsate.remove();
+                chiudi(voce.statement);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rende di nuovo disponibile uno statement chiuso dal chiamante.
+     * Se lo statement non si riesce a ripristinare viene tolto dalla cache e chiuso.
+     * @param statement lo statement restituito
+     */
+    synchronized void restituisci(PreparedStatement statement) {
+        for (Iterator<Voce> it = voci.values().iterator(); it.hasNext(); ) {
+            Voce voce = it.next();
+            if (voce.statement != statement) {
+                continue;
+            }
+            if (!voce.inUso) {
+                return;
+            }
+            try {
+                ResultSet rs = statement.getResultSet();
+                if (rs != null) {
+                    rs.close();
+                }
+                statement.clearParameters();
+                statement.clearWarnings();
+                voce.inUso = false;
+            } catch (SQLException e) {
+                LOGGER.fine("Statement non riutilizzabile, rimosso dalla cache: " + e.getMessage());
+                it.remove();
+                chiudi(statement);
+            }
+            return;
+        }
+    }
+
+    /**
+     * Rende disponibili gli statement che il chiamante non ha chiuso prima di restituire la connessione.
+     */
+    synchronized void rilasciaTutti() {
+        for (Voce voce : voci.values().toArray(new Voce[0])) {
+            if (voce.inUso) {
+                restituisci(voce.statement);
+            }
+        }
+    }
+
+    /**
+     * Chiude tutti gli statement in cache, prima della chiusura della connessione fisica.
+     */
+    synchronized void chiudiTutti() {
+        for (Voce voce : voci.values()) {
+            chiudi(voce.statement);
+        }
+        voci.clear();
+    }
+
+    private static void chiudi(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) { /* lo statement viene comunque scartato */ }
+    }
+
+    /**
+     * Statement in cache e stato di utilizzo.
+     */
+    private static final class Voce {
+        private final PreparedStatement statement;
+        private boolean inUso = true;
+
+        private Voce(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+}
@@ -12,10 +12,10 @@ import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
 import java.awt.*;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.List;
 import javax.swing.JFileChooser;
 import javax.swing.filechooser.FileNameExtensionFilter;
-import javax.swing.ImageIcon;
 import java.io.File;
 import java.net.URL;
 import java.net.URI;
@@ -40,9 +40,12 @@ import java.net.URISyntaxException;
 public class BoardPanel extends JPanel {
     private String boardName;
     private transient Controller controller; //transient perchè non va serializzato perchè contiene riferimenti a oggetti complessi
-    private JPanel todoListPanel;
+    private long ultimoRefresh; // numero dell'ultimo refresh richiesto, usato solo sull'Event Dispatch Thread
+    private VirtualToDoList todoListPanel;
     private String username;
     private transient List<ToDo> todos;
+    private transient PaginaToDo.Cursore prossimaPagina; // null se tutti i ToDo della board sono già caricati
+    private boolean paginaInCaricamento;
     private transient Board board;
     private static final Logger logger = Logger.getLogger(BoardPanel.class.getName());
     // Da aggiungere all'inizio della classe BoardPanel
@@ -76,23 +79,59 @@ public class BoardPanel extends JPanel {
      * @param todos La lista dei ToDo da visualizzare nella board.
      */
     public BoardPanel(String boardName, Controller controller, String username, List<ToDo> todos) {
-        this.boardName = boardName;
+        this(controller.getBoardByNameAndUser(boardName, controller.getUtenteLoggato().getId()), controller, username, todos);
+    }
+
+    /**
+     * Costruttore della classe BoardPanel a partire da una board già caricata.
+     * Se la lista dei ToDo è fornita viene visualizzata direttamente, senza interrogare di nuovo il database;
+     * se contiene una pagina intera, le pagine successive vengono lette durante lo scorrimento.
+     *
+     * @param board La board da visualizzare.
+     * @param controller Il controller dell'applicazione.
+     * @param username Il nome utente dell'utente corrente.
+     * @param todos La lista dei ToDo da visualizzare nella board, o null per caricarla.
+     */
+    public BoardPanel(Board board, Controller controller, String username, List<ToDo> todos) {
+        this.boardName = board.getTitolo();
         this.controller = controller;
         this.username = username;
-        this.board = controller.getBoardByNameAndUser(boardName, controller.getUtenteLoggato().getId());
+        this.board = board;
         this.todos = todos;
+        if (todos != null && todos.size() >= BoardManager.DIMENSIONE_PAGINA) {
+            this.prossimaPagina = PaginaToDo.Cursore.dopo(todos.get(todos.size() - 1));
+        }
         setLayout(new BorderLayout());
 
         setBorder(BorderFactory.createTitledBorder(this.boardName));
 
-        todoListPanel = new JPanel();
-        todoListPanel.setLayout(new BoxLayout(todoListPanel, BoxLayout.Y_AXIS));
+        todoListPanel = new VirtualToDoList(280, 140, 5, 3, new VirtualToDoList.CardRenderer() {
+            @Override
+            public JPanel createCard() {
+                return createTodoItemShell();
+            }
+
+            @Override
+            public void bind(JPanel card, ToDo todo) {
+                bindTodoItemPanel(card, todo);
+            }
+
+            @Override
+            public Object impronta(ToDo todo) {
+                return improntaDi(todo, LocalDate.now());
+            }
+        });
+        todoListPanel.setFineListaListener(this::caricaPaginaSuccessiva);
         todoListPanel.setBackground(new Color(255, 255, 255));
         JScrollPane scrollPane = new JScrollPane(todoListPanel);
         scrollPane.setBorder(BorderFactory.createEmptyBorder());
         add(scrollPane, BorderLayout.CENTER);
 
-        refresh();
+        if (todos != null) {
+            refreshTodoListPanel();
+        } else {
+            refresh();
+        }
     }
 
     /**
@@ -116,6 +155,15 @@ public class BoardPanel extends JPanel {
         return boardName;
     }
 
+    /**
+     * Questa funzione restituisce la board visualizzata dal pannello,
+     * così chi la usa non deve cercarla di nuovo nel database.
+     * @return La board visualizzata.
+     */
+    public Board getBoard() {
+        return board;
+    }
+
     /**
      * Imposta il controller per questa BoardPanel.
      * Questo metodo aggiunge l'effetto hover ai bottoni del pannello.
@@ -149,107 +197,155 @@ public class BoardPanel extends JPanel {
     }
 
     /**
-     * Carica un'icona di anteprima da un file locale.
-     * Ridimensiona l'immagine a 100x100 pixel per l'anteprima.
-     *
-     * @param file Il file dell'immagine da caricare.
-     * @return L'icona dell'immagine ridimensionata.
-     * @throws MalformedURLException Se l'URL dell'immagine non è valido.
+     * Ricarica i ToDo dalla board e aggiorna il pannello.
+     * Vengono riletti dall'inizio tanti ToDo quanti ne erano già caricati, almeno una pagina,
+     * così chi ha già scorso la lista non perde la posizione.
+     * Il caricamento avviene fuori dall'Event Dispatch Thread; se nel frattempo parte un altro refresh,
+     * il risultato di quello precedente viene ignorato.
      */
-    private ImageIcon loadImagePreview(File file) throws MalformedURLException {
-        ImageIcon newIcon = new ImageIcon(file.toURI().toURL());
-        Image scaledImage = newIcon.getImage().getScaledInstance(100, 100, Image.SCALE_SMOOTH);
-        return new ImageIcon(scaledImage);
+    private void refresh() {
+        final long richiesta = ++ultimoRefresh;
+        int dimensione = Math.max(BoardManager.DIMENSIONE_PAGINA, todos != null ? todos.size() : 0);
+        controller.getAsyncController().getPaginaToDo(board, null, dimensione).thenAccept(pagina -> {
+            if (richiesta == ultimoRefresh && pagina != null) {
+                this.todos = pagina.getTodos();
+                this.prossimaPagina = pagina.getProssima();
+                logger.info("REFRESH " + boardName + " - ToDo trovati: " + todos.size());
+                refreshTodoListPanel();
+            }
+        });
     }
 
     /**
-     * Ottiene un'icona di anteprima da un percorso di immagine.
-     * Se l'immagine non è valida o non può essere caricata, restituisce null.
-     *
-     * @param imgPath Il percorso dell'immagine.
-     * @return L'icona dell'immagine ridimensionata o null se non valida.
+     * Carica la pagina di ToDo successiva a quelle già visualizzate e la aggiunge in fondo alla lista.
+     * Viene chiamato dalla lista quando lo scorrimento raggiunge l'ultimo ToDo; non fa nulla se tutte le pagine
+     * sono già caricate o se una pagina è già in caricamento. Se nel frattempo parte un refresh, la pagina viene scartata.
      */
-    private ImageIcon getPreviewIcon(String imgPath) {
-        try {
-            ImageIcon originalIcon = loadOriginalIcon(imgPath);
-            if (originalIcon != null && originalIcon.getIconWidth() != -1) {
-                Image scaledImage = originalIcon.getImage().getScaledInstance(100, 100, Image.SCALE_SMOOTH);
-                return new ImageIcon(scaledImage);
-            }
-        } catch (Exception ignored) { /* non fare nulla se fallisce */ }
-        return null;
+    private void caricaPaginaSuccessiva() {
+        if (prossimaPagina == null || paginaInCaricamento || todos == null) {
+            return;
+        }
+        paginaInCaricamento = true;
+        final long richiesta = ultimoRefresh;
+        controller.getAsyncController().getPaginaToDo(board, prossimaPagina, BoardManager.DIMENSIONE_PAGINA)
+                .whenComplete((pagina, errore) -> {
+                    paginaInCaricamento = false;
+                    if (pagina != null && richiesta == ultimoRefresh) {
+                        List<ToDo> estesa = new java.util.ArrayList<>(todos);
+                        estesa.addAll(pagina.getTodos());
+                        this.todos = estesa;
+                        this.prossimaPagina = pagina.getProssima();
+                        refreshTodoListPanel();
+                    }
+                });
     }
 
     /**
-     * Carica l'icona originale da un percorso di immagine.
-     * Gestisce sia i file locali che gli URL.
-     *
-     * @param imgPath Il percorso dell'immagine.
-     * @return L'icona dell'immagine originale o null se non valida.
+     * Salva le modifiche di un ToDo fuori dall'Event Dispatch Thread e al termine ricarica il pannello.
+     * Se un altro utente ha modificato o eliminato il ToDo nel frattempo, o il salvataggio fallisce,
+     * avvisa che le modifiche non sono state salvate.
+     * @param todo Il ToDo modificato.
      */
-    private ImageIcon loadOriginalIcon(String imgPath) {
-        try {
-            File imgFile = new File(imgPath);
-            if (imgFile.exists()) {
-                return new ImageIcon(imgFile.toURI().toURL());
-            } else {
-                return new ImageIcon(new URI(imgPath).toURL());
+    private void salvaEAggiorna(ToDo todo) {
+        controller.getAsyncController().updateToDo(todo).whenComplete((esito, errore) -> {
+            if (errore != null || esito == null || esito.getEsito() == RisultatoAggiornamento.Esito.ERRORE) {
+                JOptionPane.showMessageDialog(this, "Impossibile salvare il ToDo: le modifiche non sono state salvate.",
+                        "Errore", JOptionPane.ERROR_MESSAGE);
+            } else if (esito.isConflitto()) {
+                JOptionPane.showMessageDialog(this, "Il ToDo è stato modificato da un altro utente: le modifiche non sono state salvate.",
+                        "Conflitto", JOptionPane.WARNING_MESSAGE);
+            } else if (esito.getEsito() == RisultatoAggiornamento.Esito.NON_TROVATO) {
+                JOptionPane.showMessageDialog(this, "Il ToDo è stato eliminato da un altro utente.",
+                        "Conflitto", JOptionPane.WARNING_MESSAGE);
             }
-        } catch (URISyntaxException | MalformedURLException ex) {
-            logger.warning("URL immagine non valido nel modifica: " + ex.getMessage());
-        }
-        return null;
+            refresh();
+        });
     }
 
     /**
-     * Ricarica i ToDo dalla board e aggiorna il pannello.
+     * Restituisce il ToDo su cui deve agire un bottone di una scheda: quello mostrato ora dalla scheda,
+     * che dopo un refresh può essere un'istanza più recente di quella ricevuta quando il bottone è stato creato.
+     * @param bottone Il bottone della scheda.
+     * @param todo Il ToDo con cui è stato creato il bottone.
+     * @return Il ToDo corrente della scheda, o todo se il bottone non è in una scheda.
      */
-    private void refresh() {
-        loadTodos();
-        refreshTodoListPanel();
+    private static ToDo todoCorrente(Component bottone, ToDo todo) {
+        ToDo corrente = VirtualToDoList.todoDellaScheda(bottone);
+        return corrente != null && corrente.getId() == todo.getId() ? corrente : todo;
     }
 
     /**
-     * Carica i ToDo dalla board utilizzando il controller.
+     * Esegue un'azione su un ToDo completo di descrizione, URL, immagine e creatore.
+     * I ToDo della lista sono caricati come riepilogo: se i dettagli mancano vengono letti fuori
+     * dall'Event Dispatch Thread e l'azione parte al termine, sempre sull'Event Dispatch Thread.
+     * @param todo Il ToDo su cui eseguire l'azione.
+     * @param azione L'azione da eseguire con il ToDo completo.
      */
-    private void loadTodos() {
-        this.todos = controller.getToDo(board);
-        logger.info("REFRESH " + boardName + " - ToDo trovati: " + (todos != null ? todos.size() : "null"));
+    private void conDettagli(ToDo todo, java.util.function.Consumer<ToDo> azione) {
+        if (todo.isDettagliCaricati()) {
+            azione.accept(todo);
+            return;
+        }
+        controller.getAsyncController().loadToDoDetails(todo).whenComplete((completo, errore) -> {
+            if (completo != null) {
+                azione.accept(completo);
+            } else {
+                JOptionPane.showMessageDialog(this, "Impossibile caricare i dettagli del ToDo.", "Errore", JOptionPane.ERROR_MESSAGE);
+                refresh();
+            }
+        });
     }
 
     /**
      * Rinfresca il pannello della lista dei ToDo.
-     * Rimuove tutti i componenti esistenti e li ricrea in base alla lista dei ToDo caricati.
+     * La lista è virtualizzata: vengono create solo le schede delle righe visibili,
+     * e tra queste viene ricostruito solo il contenuto delle schede i cui dati sono cambiati.
      */
     private void refreshTodoListPanel() {
-        todoListPanel.removeAll();
-
-        if (todos != null) {
-            for (final ToDo todo : this.todos) {
-                JPanel todoItemPanel = createTodoItemPanel(todo);
-                todoListPanel.add(todoItemPanel);
-                todoListPanel.add(Box.createVerticalStrut(5));
-            }
-        }
+        todoListPanel.setToDos(todos);
+    }
 
-        todoListPanel.revalidate();
-        todoListPanel.repaint();
+    /**
+     * Calcola l'impronta di un ToDo, cioè l'elenco dei dati che influenzano la sua scheda.
+     * Se l'impronta non cambia, la scheda già visualizzata è ancora corretta.
+     * Comprende la data odierna perché il semaforo della scadenza dipende da essa,
+     * e la versione della riga così ogni modifica salvata, anche di campi non elencati, ricostruisce la scheda.
+     *
+     * @param todo Il ToDo di cui calcolare l'impronta.
+     * @param oggi La data odierna.
+     * @return L'impronta del ToDo.
+     */
+    private List<Object> improntaDi(ToDo todo, LocalDate oggi) {
+        return Arrays.asList(todo.getTitolo(), todo.getScadenza(), todo.getColore(),
+                todo.getStato(), todo.getPosizione(), todo.getSharedByUsername(),
+                todo.getIdBoard(), todo.getIdBoardCondivisione(), todo.getVersione(),
+                todo.getScadenza() != null ? oggi : null);
     }
 
     /**
-     * Crea un pannello per visualizzare un singolo ToDo.
-     * Il pannello include il titolo, i bottoni per modificare, completare, visualizzare i dettagli ed eliminare il ToDo.
+     * Crea un pannello vuoto per un singolo ToDo, con bordo e dimensioni della scheda.
+     * Il contenuto viene aggiunto da bindTodoItemPanel.
      *
-     * @param todo Il ToDo da visualizzare.
-     * @return Il pannello contenente le informazioni del ToDo.
+     * @return Il pannello della scheda.
      */
-    private JPanel createTodoItemPanel(ToDo todo) {
+    private JPanel createTodoItemShell() {
         final JPanel todoItemPanel = new JPanel();
         todoItemPanel.setLayout(new BoxLayout(todoItemPanel, BoxLayout.Y_AXIS));
         todoItemPanel.setBorder(createTodoItemBorder());
         todoItemPanel.setPreferredSize(new Dimension(280, 140));
         todoItemPanel.setMaximumSize(new Dimension(280, 140));
+        return todoItemPanel;
+    }
 
+    /**
+     * Riempie il pannello di una scheda con i dati di un ToDo, sostituendo l'eventuale contenuto precedente.
+     * Il pannello include il titolo, i bottoni per modificare, completare, visualizzare i dettagli ed eliminare il ToDo.
+     *
+     * @param todoItemPanel Il pannello della scheda.
+     * @param todo Il ToDo da visualizzare.
+     */
+    private void bindTodoItemPanel(JPanel todoItemPanel, ToDo todo) {
+        todoItemPanel.removeAll();
         setTodoItemBackground(todoItemPanel, todo);
 
         JPanel topTextPanel = createTopTextPanel(todo);
@@ -258,8 +354,8 @@ public class BoardPanel extends JPanel {
         todoItemPanel.add(topTextPanel);
         todoItemPanel.add(buttonsGridPanel);
         todoItemPanel.add(Box.createVerticalGlue());
-
-        return todoItemPanel;
+        todoItemPanel.revalidate();
+        todoItemPanel.repaint();
     }
 
     /**
@@ -474,7 +570,7 @@ public class BoardPanel extends JPanel {
         final JButton completeButton = new JButton(todo.getStato() == StatoToDo.COMPLETATO ? "Non Completare" : "Completa");
         completeButton.setEnabled(true);
         styleButton(completeButton);
-        completeButton.addActionListener(e -> toggleTodoStatus(todo));
+        completeButton.addActionListener(e -> toggleTodoStatus(todoCorrente(completeButton, todo)));
         return completeButton;
     }
 
@@ -492,8 +588,7 @@ public class BoardPanel extends JPanel {
         } else {
             todo.setStato(StatoToDo.COMPLETATO);
         }
-        controller.updateToDo(todo);
-        refresh();
+        salvaEAggiorna(todo);
     }
 
     /**
@@ -506,7 +601,7 @@ public class BoardPanel extends JPanel {
     private JButton createEditButton(ToDo todo) {
         final JButton editButton = new JButton("Modifica");
         styleButton(editButton);
-        editButton.addActionListener(e -> showEditDialog(todo));
+        editButton.addActionListener(e -> conDettagli(todoCorrente(editButton, todo), this::showEditDialog));
         return editButton;
     }
 
@@ -599,8 +694,7 @@ public class BoardPanel extends JPanel {
             }
         } while (nuovoTitolo == null || nuovoTitolo.trim().isEmpty());
         todo.setTitolo(nuovoTitolo.trim());
-        controller.updateToDo(todo);
-        refresh();
+        salvaEAggiorna(todo);
     }
 
     /**
@@ -626,8 +720,7 @@ public class BoardPanel extends JPanel {
             String coloreSelezionatoNome = (String) nuovoColoreComboBox.getSelectedItem();
             String coloreEsadecimale = getColorHex(coloreSelezionatoNome);
             todo.setColore(coloreEsadecimale);
-            controller.updateToDo(todo);
-            refresh();
+            salvaEAggiorna(todo);
         }
     }
 
@@ -692,8 +785,7 @@ public class BoardPanel extends JPanel {
             }
         } while (newDescription == null || newDescription.trim().isEmpty());
         todo.setDescrizione(newDescription.trim());
-        controller.updateToDo(todo);
-        refresh();
+        salvaEAggiorna(todo);
     }
 
     /**
@@ -707,8 +799,7 @@ public class BoardPanel extends JPanel {
         String newUrl = JOptionPane.showInputDialog(this, "Nuovo URL (lascia vuoto per rimuovere):", todo.getUrl());
         if (newUrl != null) {
             todo.setUrl(newUrl.trim());
-            controller.updateToDo(todo);
-            refresh();
+            salvaEAggiorna(todo);
         }
     }
 /**
@@ -730,10 +821,7 @@ public class BoardPanel extends JPanel {
         previewLabel.setBorder(BorderFactory.createLineBorder(LIGHT_BORDER_GRAY, 1));
 
         if (todo.getImg() != null && !todo.getImg().isEmpty()) {
-            ImageIcon previewIcon = getPreviewIcon(todo.getImg());
-            if (previewIcon != null) {
-                previewLabel.setIcon(previewIcon);
-            }
+            ThumbnailLoader.getShared().loadInto(previewLabel, todo.getImg(), 100, 100, null);
         }
 
         selectFileButton.addActionListener(fileChooserEvent -> {
@@ -744,16 +832,7 @@ public class BoardPanel extends JPanel {
             if (userSelection == JFileChooser.APPROVE_OPTION) {
                 final File selectedFile = fileChooser.getSelectedFile();
                 currentImgField.setText(selectedFile.getAbsolutePath());
-                try {
-                    ImageIcon previewIcon = loadImagePreview(selectedFile);
-                    previewLabel.setIcon(previewIcon);
-                } catch (MalformedURLException ex) {
-                    logger.warning("Errore creazione URL da file: " + ex.getMessage());
-                    previewLabel.setIcon(null);
-                } catch (Exception ex) {
-                    previewLabel.setIcon(null);
-                    logger.warning("Errore caricamento anteprima: " + ex.getMessage());
-                }
+                ThumbnailLoader.getShared().loadInto(previewLabel, selectedFile.getAbsolutePath(), 100, 100, null);
             }
         });
 
@@ -768,8 +847,7 @@ public class BoardPanel extends JPanel {
         if (optionResult == JOptionPane.OK_OPTION) {
             String newImageUrl = currentImgField.getText().trim();
             todo.setImg(newImageUrl.isEmpty() ? null : newImageUrl);
-            controller.updateToDo(todo);
-            refresh();
+            salvaEAggiorna(todo);
         }
     }
 /**
@@ -787,15 +865,13 @@ public class BoardPanel extends JPanel {
             try {
                 int newPos = Integer.parseInt(newPosStr.trim());
                 todo.setPosizione(newPos);
-                controller.updateToDo(todo);
-                refresh();
+                salvaEAggiorna(todo);
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(this, "Posizione non valida.");
             }
         } else if (newPosStr != null && newPosStr.trim().isEmpty()) {
             todo.setPosizione(-1);
-            controller.updateToDo(todo);
-            refresh();
+            salvaEAggiorna(todo);
         }
     }
 /**
@@ -805,7 +881,7 @@ public class BoardPanel extends JPanel {
     private JButton createDetailsButton(ToDo todo) {
         final JButton detailsButton = new JButton("Dettagli");
         styleButton(detailsButton);
-        detailsButton.addActionListener(e -> showTodoDetails(todo));
+        detailsButton.addActionListener(e -> conDettagli(todoCorrente(detailsButton, todo), this::showTodoDetails));
         return detailsButton;
     }
 // in src/gui/BoardPanel.java
@@ -1075,15 +1151,9 @@ public class BoardPanel extends JPanel {
 
         if (todo.getImg() != null && !todo.getImg().isEmpty()) {
             URL imageURL = getImageUrl(todo.getImg());
-            ImageIcon imageIcon = imageURL != null ? new ImageIcon(imageURL) : null;
-
-            if (imageIcon != null && imageIcon.getIconWidth() != -1) {
-                Image scaledImage = scaleImageToFit(imageIcon.getImage(),
-                        clickableImageDisplay.getPreferredSize());
-                clickableImageDisplay.setIcon(new ImageIcon(scaledImage));
-            } else {
-                clickableImageDisplay.setText("Immagine non caricabile");
-            }
+            Dimension size = clickableImageDisplay.getPreferredSize();
+            ThumbnailLoader.getShared().loadInto(clickableImageDisplay, todo.getImg(),
+                    size.width, size.height, "Immagine non caricabile");
 
             final URL finalImageURL = imageURL;
             clickableImageDisplay.addMouseListener(createImageClickListener(finalImageURL, todo.getTitolo()));
@@ -1118,26 +1188,6 @@ public class BoardPanel extends JPanel {
         }
     }
 
-    /**
-     * Scala un'immagine per adattarla a una dimensione specificata.
-     * * Calcola il fattore di scala in base alla larghezza e all'altezza originali dell'immagine
-     * * e alla dimensione target.
-     * * @param image L'immagine da scalare.
-     * * @param targetSize La dimensione target a cui adattare l'immagine.
-     * @return L'immagine scalata per adattarsi alla dimensione target.
-     */
-    private Image scaleImageToFit(Image image, Dimension targetSize) {
-        int originalWidth = image.getWidth(null);
-        int originalHeight = image.getHeight(null);
-        double scaleX = (double) targetSize.width / originalWidth;
-        double scaleY = (double) targetSize.height / originalHeight;
-        double scale = Math.min(scaleX, scaleY);
-        return image.getScaledInstance(
-                (int)(originalWidth * scale),
-                (int)(originalHeight * scale),
-                Image.SCALE_SMOOTH);
-    }
-
     /**
      * Crea un listener per il clic sull'immagine del ToDo.
      * Quando l'immagine viene cliccata, apre un dialogo con l'immagine a dimensione intera.
@@ -1163,33 +1213,23 @@ public class BoardPanel extends JPanel {
     }
 
     /**
-     * Mostra l'immagine del ToDo in un dialogo.
-     * Se l'immagine è disponibile, la visualizza a dimensione intera in un JFrame.
-     * Se l'immagine non è disponibile, apre l'URL nel browser predefinito.
+     * Mostra l'immagine del ToDo in una finestra con zoom.
+     * L'immagine viene decodificata in background e solo per la parte visibile, alla risoluzione dello zoom.
+     * Se l'immagine non è leggibile, apre l'URL nel browser predefinito.
      *
      * @param imageURL L'URL dell'immagine da visualizzare.
      * @param title Il titolo del ToDo associato all'immagine.
      */
     private void showImageInDialog(URL imageURL, String title) {
-        try {
-            ImageIcon fullSizeIcon = new ImageIcon(imageURL);
-            if (fullSizeIcon.getIconWidth() != -1) {
-                JLabel fullSizeLabel = new JLabel(fullSizeIcon);
-                JFrame imageFrame = new JFrame("Immagine ToDo: " + title);
-                imageFrame.setDefaultCloseOperation(javax.swing.WindowConstants.DISPOSE_ON_CLOSE);
-                JScrollPane scrollPane = new JScrollPane(fullSizeLabel);
-                imageFrame.add(scrollPane);
-                imageFrame.pack();
-                imageFrame.setLocationRelativeTo(null);
-                imageFrame.setVisible(true);
-            } else {
-                openImageInBrowser(imageURL);
+        String path = imageURL.toString();
+        if ("file".equalsIgnoreCase(imageURL.getProtocol())) {
+            try {
+                path = new File(imageURL.toURI()).getAbsolutePath();
+            } catch (URISyntaxException | IllegalArgumentException ex) {
+                logger.warning("Percorso immagine non valido: " + imageURL + " - " + ex.getMessage());
             }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(BoardPanel.this,
-                    "Errore visualizzazione immagine: " + ex.getMessage(),
-                    "Errore", JOptionPane.ERROR_MESSAGE);
         }
+        ZoomableImageViewer.showInFrame(path, "Immagine ToDo: " + title, () -> openImageInBrowser(imageURL));
     }
 
     /**
@@ -1220,8 +1260,12 @@ public class BoardPanel extends JPanel {
         final JButton deleteButton = new JButton("Elimina");
         styleButton(deleteButton);
         deleteButton.addActionListener(e -> {
-            controller.getBoardController().deleteToDo(todo);
-            refresh();
+            deleteButton.setEnabled(false);
+            controller.getAsyncController().deleteToDo(todoCorrente(deleteButton, todo))
+                    .whenComplete((esito, errore) -> {
+                        deleteButton.setEnabled(true);
+                        refresh();
+                    });
         });
         return deleteButton;
     }
@@ -1270,4 +1314,5 @@ public class BoardPanel extends JPanel {
         dialog.setVisible(true);
     }
 
-}
\ No newline at end of file
+
+}
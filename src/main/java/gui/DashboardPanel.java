@@ -24,7 +24,11 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.Date;
 import java.io.File;
 import javax.swing.filechooser.FileNameExtensionFilter;
@@ -33,6 +37,7 @@ public class DashboardPanel extends JPanel {
     private Controller boardController;
     private JPanel boards;
     private List<BoardPanel> boardPanels = new ArrayList<>();
+    private long ultimoCaricamento; // numero dell'ultimo caricamento della dashboard richiesto
     private MainFrame mainFrame;
 
     // Definizioni Colori Moderni
@@ -107,9 +112,15 @@ public class DashboardPanel extends JPanel {
             if (confirm == JOptionPane.YES_OPTION) {
                 Utente utenteLoggato = mainFrame.getUtenteLoggato();
                 if (utenteLoggato != null) {
-                    boardController.getBoardController().deleteAllBoardsByUserId(utenteLoggato.getId());
-                    JOptionPane.showMessageDialog(this, "Tutte le bacheche sono state eliminate.");
-                    loadUserBoards();
+                    boardController.getAsyncController().deleteAllBoardsByUserId(utenteLoggato.getId())
+                            .whenComplete((risultato, errore) -> {
+                                if (errore != null || risultato == null) {
+                                    mostraErrore("Impossibile eliminare le bacheche.");
+                                } else {
+                                    JOptionPane.showMessageDialog(this, "Tutte le bacheche sono state eliminate (" + risultato + ").");
+                                }
+                                loadUserBoards();
+                            });
                 } else {
                     JOptionPane.showMessageDialog(this, "Errore: Utente non loggato.");
                 }
@@ -124,12 +135,18 @@ public class DashboardPanel extends JPanel {
             String selezionata = (String) JOptionPane.showInputDialog(this, "Scegli la bacheca da completare:", "Completa Bacheca",
                     JOptionPane.PLAIN_MESSAGE, null, nomi, nomi[0]);
             if (selezionata != null) {
-                Utente utenteLoggato = mainFrame.getUtenteLoggato();
-                Board boardToComplete = boardController.getBoardController().getBoardByTitoloAndUtente(selezionata, utenteLoggato.getId());
+                Board boardToComplete = findLoadedBoard(selezionata);
                 if (boardToComplete != null) {
-                    boardController.markAllToDosAsCompletedByBoardId(boardToComplete.getId());
-                    JOptionPane.showMessageDialog(this, "Tutti i ToDo della bacheca '" + selezionata + "' sono stati contrassegnati come completati.");
-                    loadUserBoards();
+                    boardController.getAsyncController().markAllToDosAsCompletedByBoardId(boardToComplete.getId())
+                            .whenComplete((risultato, errore) -> {
+                                if (errore != null) {
+                                    mostraErrore("Impossibile completare i ToDo della bacheca '" + selezionata + "'.");
+                                } else {
+                                    JOptionPane.showMessageDialog(this, "Tutti i tuoi ToDo della bacheca '" + selezionata
+                                            + "' sono stati contrassegnati come completati. I ToDo condivisi con te non sono stati modificati.");
+                                }
+                                loadUserBoards();
+                            });
                 } else {
                     JOptionPane.showMessageDialog(this, "Errore: Bacheca non trovata.");
                 }
@@ -144,16 +161,21 @@ public class DashboardPanel extends JPanel {
             String selezionata = (String) JOptionPane.showInputDialog(this, "Scegli la bacheca da eliminare:", "Elimina Bacheca",
                     JOptionPane.PLAIN_MESSAGE, null, nomi, nomi[0]);
             if (selezionata != null) {
-                Utente utenteLoggato = mainFrame.getUtenteLoggato();
-                Board boardToDelete = boardController.getBoardController().getBoardByTitoloAndUtente(selezionata, utenteLoggato.getId());
+                Board boardToDelete = findLoadedBoard(selezionata);
                 if (boardToDelete != null) {
                     int confirm = JOptionPane.showConfirmDialog(this,
                             "Sei sicuro di voler eliminare la bacheca '" + selezionata + "' e tutti i suoi ToDo?",
                             "Conferma Eliminazione", JOptionPane.YES_NO_OPTION);
                     if (confirm == JOptionPane.YES_OPTION) {
-                        boardController.getBoardController().deleteBoard(boardToDelete.getId());
-                        JOptionPane.showMessageDialog(this, "Bacheca eliminata con successo.");
-                        loadUserBoards();
+                        boardController.getAsyncController().deleteBoard(boardToDelete.getId())
+                                .whenComplete((risultato, errore) -> {
+                                    if (errore != null || risultato == null) {
+                                        mostraErrore("Impossibile eliminare la bacheca '" + selezionata + "'.");
+                                    } else {
+                                        JOptionPane.showMessageDialog(this, "Bacheca eliminata con successo.");
+                                    }
+                                    loadUserBoards();
+                                });
                     }
                 } else {
                     JOptionPane.showMessageDialog(this, "Errore: Board non trovata per l'eliminazione.");
@@ -177,15 +199,20 @@ public class DashboardPanel extends JPanel {
                         JOptionPane.showMessageDialog(this, "Errore: Utente non loggato.");
                         return;
                     }
-                    Board existingBoard = boardController.getBoardController().getBoardByTitoloAndUtente(nuovaBachecaTitolo.trim(), utenteLoggato.getId());
+                    Board existingBoard = findLoadedBoard(nuovaBachecaTitolo.trim());
                     if (existingBoard != null) {
                         JOptionPane.showMessageDialog(this, "Una bacheca con questo nome esiste già per il tuo utente.");
                     } else {
                         Board newBoard = new Board(0, nuovaBachecaTitolo.trim(), utenteLoggato.getId());
                         newBoard.setUsername(mainFrame.getUtenteLoggato().getUsername());
-                        boardController.addBoard(newBoard);
-                        JOptionPane.showMessageDialog(this, "Bacheca '" + nuovaBachecaTitolo + "' aggiunta con successo.");
-                        loadUserBoards();
+                        boardController.getAsyncController().addBoard(newBoard).whenComplete((risultato, errore) -> {
+                            if (errore != null) {
+                                mostraErrore("Impossibile aggiungere la bacheca '" + nuovaBachecaTitolo + "'.");
+                            } else {
+                                JOptionPane.showMessageDialog(this, "Bacheca '" + nuovaBachecaTitolo + "' aggiunta con successo.");
+                            }
+                            loadUserBoards();
+                        });
                     }
                 } else {
                     JOptionPane.showMessageDialog(this, "Il nome della bacheca non può essere vuoto.");
@@ -193,7 +220,7 @@ public class DashboardPanel extends JPanel {
             }
         });
         newToDoButton.addActionListener(e -> {
-            List<Board> userBoards = boardController.getBoardController().getBoardsByUsername(mainFrame.getUtenteLoggato().getUsername());
+            List<Board> userBoards = getLoadedBoards();
             if (userBoards.isEmpty()) {
                 JOptionPane.showMessageDialog(this, "Crea prima una bacheca per aggiungere ToDo.");
                 return;
@@ -254,14 +281,7 @@ public class DashboardPanel extends JPanel {
                     if (userSelection == JFileChooser.APPROVE_OPTION) {
                         File selectedFile = fileChooser.getSelectedFile();
                         imgPathField.setText(selectedFile.getAbsolutePath());
-                        try {
-                            ImageIcon originalIcon = new ImageIcon(selectedFile.toURI().toURL());
-                            Image scaledImage = originalIcon.getImage().getScaledInstance(50, 50, Image.SCALE_SMOOTH);
-                            imagePreviewLabel.setIcon(new ImageIcon(scaledImage));
-                        } catch (Exception ex) {
-                            imagePreviewLabel.setIcon(null);
-                            System.err.println("Errore caricamento anteprima: " + ex.getMessage());
-                        }
+                        ThumbnailLoader.getShared().loadInto(imagePreviewLabel, selectedFile.getAbsolutePath(), 50, 50, null);
                     }
                 });
                 panel.add(new JLabel("Titolo*")); panel.add(titoloField);
@@ -320,56 +340,41 @@ public class DashboardPanel extends JPanel {
                     nuovoToDo.setPosizione(posizione);
                     nuovoToDo.setIdUtente(mainFrame.getUtenteLoggato().getId());
                     nuovoToDo.setIdBoard(targetBoard.getId());
-                    boardController.createToDo(nuovoToDo);
-                    JOptionPane.showMessageDialog(this, "ToDo '" + titolo + "' aggiunto con successo alla bacheca '" + selectedBoardName + "'.");
-                    loadUserBoards();
+                    boardController.getAsyncController().createToDo(nuovoToDo).whenComplete((risultato, errore) -> {
+                        if (errore != null) {
+                            mostraErrore("Impossibile aggiungere il ToDo '" + titolo + "'.");
+                        } else {
+                            JOptionPane.showMessageDialog(this, "ToDo '" + titolo + "' aggiunto con successo alla bacheca '" + selectedBoardName + "'.");
+                        }
+                        loadUserBoards();
+                    });
                     break;
                 } while (true);
             }
         });
         shareToDoButton.addActionListener(e -> {
-            List<ToDo> allUserToDos = new ArrayList<>();
-            List<Board> userBoards = boardController.getBoardController().getBoardsByUsername(mainFrame.getUtenteLoggato().getUsername());
+            List<Board> userBoards = getLoadedBoards();
             if (userBoards.isEmpty()) {
                 JOptionPane.showMessageDialog(this, "Non hai ToDo da condividere. Crea prima una bacheca e aggiungi ToDo.");
                 return;
             }
+            shareToDoButton.setEnabled(false);
+            List<CompletableFuture<List<ToDo>>> letture = new ArrayList<>();
             for (Board b : userBoards) {
-                allUserToDos.addAll(boardController.getToDo(b));
+                letture.add(boardController.getAsyncController().getToDo(b));
             }
-            if (allUserToDos.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "Non hai ToDo da condividere.");
-                return;
-            }
-            String[] todoTitles = allUserToDos.stream().map(ToDo::getTitolo).toArray(String[]::new);
-            String selectedToDoTitle = (String) JOptionPane.showInputDialog(this, "Scegli il ToDo da condividere:", "Condividi ToDo",
-                    JOptionPane.PLAIN_MESSAGE, null, todoTitles, todoTitles[0]);
-            if (selectedToDoTitle != null) {
-                ToDo selectedToDo = allUserToDos.stream()
-                        .filter(t -> t.getTitolo().equals(selectedToDoTitle))
-                        .findFirst().orElse(null);
-                if (selectedToDo == null) {
-                    JOptionPane.showMessageDialog(this, "Errore: ToDo selezionato non trovato.");
+            CompletableFuture.allOf(letture.toArray(new CompletableFuture<?>[0])).whenComplete((nessuno, errore) -> {
+                shareToDoButton.setEnabled(true);
+                if (errore != null) {
+                    mostraErrore("Impossibile caricare i ToDo da condividere.");
                     return;
                 }
-                String recipientUsername = JOptionPane.showInputDialog(this, "Inserisci l'username del destinatario:");
-                if (recipientUsername != null && !recipientUsername.trim().isEmpty()) {
-                    if (recipientUsername.equals(mainFrame.getUtenteLoggato().getUsername())) {
-                        JOptionPane.showMessageDialog(this, "Non puoi condividere un ToDo con te stesso.");
-                        return;
-                    }
-                    Board originalBoard = boardController.getBoardController().getBoardById(selectedToDo.getIdBoard());
-                    if (originalBoard != null) {
-                        boardController.getBoardController().condividiToDo(selectedToDo, originalBoard.getTitolo(), recipientUsername);
-                        JOptionPane.showMessageDialog(this, "ToDo '" + selectedToDo.getTitolo() + "' condiviso con " + recipientUsername + ".");
-                        loadUserBoards();
-                    } else {
-                        JOptionPane.showMessageDialog(this, "Errore: Bacheca originale del ToDo non trovata.");
-                    }
-                } else {
-                    JOptionPane.showMessageDialog(this, "Username destinatario non valido.");
+                List<ToDo> allUserToDos = new ArrayList<>();
+                for (CompletableFuture<List<ToDo>> lettura : letture) {
+                    allUserToDos.addAll(lettura.join());
                 }
-            }
+                mostraCondivisione(allUserToDos);
+            });
         });
         actionPanel.add(shareToDoButton);
         actionPanel.add(completeButton);
@@ -390,6 +395,79 @@ public class DashboardPanel extends JPanel {
         loadUserBoards();
     }
 
+    /**
+     * Mostra la finestra di condivisione con i ToDo dell'utente e, alla conferma, condivide quelli selezionati
+     * con i destinatari indicati fuori dall'Event Dispatch Thread.
+     * @param allUserToDos I ToDo dell'utente tra cui scegliere quelli da condividere.
+     */
+    private void mostraCondivisione(List<ToDo> allUserToDos) {
+        if (allUserToDos.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Non hai ToDo da condividere.");
+            return;
+        }
+        JList<ToDo> todoList = new JList<>(allUserToDos.toArray(new ToDo[0]));
+        todoList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        todoList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                return super.getListCellRendererComponent(list, ((ToDo) value).getTitolo(), index, isSelected, cellHasFocus);
+            }
+        });
+        todoList.setVisibleRowCount(8);
+        JTextField recipientsField = new JTextField();
+        JPanel sharePanel = new JPanel(new BorderLayout(0, 5));
+        sharePanel.add(new JLabel("Scegli i ToDo da condividere:"), BorderLayout.NORTH);
+        sharePanel.add(new JScrollPane(todoList), BorderLayout.CENTER);
+        JPanel recipientsPanel = new JPanel(new BorderLayout(0, 2));
+        recipientsPanel.add(new JLabel("Username dei destinatari, separati da virgola:"), BorderLayout.NORTH);
+        recipientsPanel.add(recipientsField, BorderLayout.CENTER);
+        sharePanel.add(recipientsPanel, BorderLayout.SOUTH);
+        if (JOptionPane.showConfirmDialog(this, sharePanel, "Condividi ToDo", JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+        List<ToDo> selectedToDos = todoList.getSelectedValuesList();
+        if (selectedToDos.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Nessun ToDo selezionato.");
+            return;
+        }
+        Set<String> recipients = new LinkedHashSet<>();
+        for (String username : recipientsField.getText().split(",")) {
+            if (!username.trim().isEmpty()) {
+                recipients.add(username.trim());
+            }
+        }
+        if (recipients.remove(mainFrame.getUtenteLoggato().getUsername())) {
+            JOptionPane.showMessageDialog(this, "Non puoi condividere un ToDo con te stesso: il tuo username è stato ignorato.");
+        }
+        if (recipients.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Username destinatario non valido.");
+            return;
+        }
+        List<Integer> selectedIds = new ArrayList<>();
+        for (ToDo todo : selectedToDos) {
+            selectedIds.add(todo.getId());
+        }
+        boardController.getAsyncController().condividiToDos(selectedIds, recipients)
+                .whenComplete((esiti, errore) -> {
+                    if (errore != null) {
+                        mostraErrore("Impossibile condividere i ToDo selezionati.");
+                    } else {
+                        JOptionPane.showMessageDialog(this, messaggioCondivisione(esiti, selectedToDos.size()));
+                    }
+                    loadUserBoards();
+                });
+    }
+
+    /**
+     * Mostra un messaggio di errore per un'operazione asincrona non riuscita.
+     * Il dettaglio dell'errore è già registrato nel log dall'AsyncController.
+     * @param messaggio Il messaggio da mostrare all'utente.
+     */
+    private void mostraErrore(String messaggio) {
+        JOptionPane.showMessageDialog(this, messaggio, "Errore", JOptionPane.ERROR_MESSAGE);
+    }
+
     /**
      * Crea un pulsante con uno stile personalizzato.
      * * @param text Il testo del pulsante.
@@ -441,30 +519,89 @@ public class DashboardPanel extends JPanel {
         });
     }
 
+    /**
+     * Restituisce la bacheca già caricata nella dashboard con il titolo indicato.
+     * @param titolo Il titolo della bacheca da cercare.
+     * @return La bacheca trovata, o null se non è presente.
+     */
+    private Board findLoadedBoard(String titolo) {
+        return getLoadedBoards().stream()
+                .filter(b -> b.getTitolo().equals(titolo))
+                .findFirst().orElse(null);
+    }
+
+    /**
+     * Restituisce le bacheche attualmente visualizzate nella dashboard, senza interrogare il database.
+     * @return La lista delle bacheche caricate.
+     */
+    private List<Board> getLoadedBoards() {
+        List<Board> loaded = new ArrayList<>();
+        for (BoardPanel boardPanel : boardPanels) {
+            if (boardPanel.getBoard() != null) {
+                loaded.add(boardPanel.getBoard());
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Restituisce il messaggio da mostrare all'utente con l'esito della condivisione per ogni destinatario.
+     */
+    private static String messaggioCondivisione(Map<String, EsitoCondivisione> esiti, int numeroToDo) {
+        StringBuilder messaggio = new StringBuilder("Condivisione di " + numeroToDo + " ToDo:");
+        esiti.forEach((destinatario, esito) -> {
+            messaggio.append("\n").append(destinatario).append(": ");
+            switch (esito) {
+                case CREATO: messaggio.append("condivisi"); break;
+                case GIA_PRESENTE: messaggio.append("già condivisi"); break;
+                case DESTINATARIO_NON_TROVATO: messaggio.append("utente non trovato"); break;
+                case TODO_NON_TROVATO: messaggio.append("ToDo non più esistenti"); break;
+                default: messaggio.append("errore durante la condivisione"); break;
+            }
+        });
+        return messaggio.toString();
+    }
+
     /** * Carica le bacheche dell'utente loggato e le visualizza nel pannello.
-     * * Questo metodo recupera le bacheche associate all'utente loggato,
-     * * le ordina per titolo e crea un pannello per ciascuna bacheca.
+     * * Questo metodo recupera le bacheche associate all'utente loggato insieme ai loro ToDo
+     * * fuori dall'Event Dispatch Thread, poi le ordina per titolo e crea un pannello per ciascuna bacheca.
      * * Le bacheche vengono visualizzate in un layout a flusso con uno spazio
      * * uniforme tra di esse.
      */
     private void loadUserBoards() {
+        String username = mainFrame.getUtenteLoggato().getUsername();
+        final long richiesta = ++ultimoCaricamento;
+        boardController.getAsyncController().loadDashboard(username).whenComplete((userBoards, errore) -> {
+            if (richiesta != ultimoCaricamento) {
+                return;
+            }
+            if (errore != null) {
+                mostraErrore("Impossibile caricare le bacheche.");
+            } else {
+                showUserBoards(username, userBoards);
+            }
+        });
+    }
+
+    /**
+     * Sostituisce i pannelli delle bacheche con quelli delle bacheche caricate.
+     * @param username Il nome dell'utente loggato.
+     * @param userBoards Le bacheche dell'utente con i relativi ToDo.
+     */
+    private void showUserBoards(String username, List<Board> userBoards) {
         boards.removeAll();
         boardPanels.clear();
 
-        String username = mainFrame.getUtenteLoggato().getUsername();
-        List<Board> userBoards = boardController.getBoardController().getBoardsByUsername(username);
-
         if (userBoards != null) {
             userBoards.sort(Comparator.comparing(Board::getTitolo));
             boards.setLayout(new FlowLayout(FlowLayout.LEFT, 20, 20));
 
             for (Board board : userBoards) {
-                List<ToDo> todos = boardController.getToDo(board);
                 BoardPanel boardPanel = new BoardPanel(
-                        board.getTitolo(),
+                        board,
                         boardController,
                         username,
-                        todos
+                        board.getTodos()
                 );
                 boardPanel.setPreferredSize(new Dimension(300, 320));
                 boardPanel.setMinimumSize(new Dimension(300, 320));
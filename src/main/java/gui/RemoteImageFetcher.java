@@ -0,0 +1,298 @@
+// src/gui/RemoteImageFetcher.java
+package gui;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Questa classe scarica le immagini dei ToDo indicate con un URL, tramite java.net.http.HttpClient.
+ * Offre:
+ * - un limite di richieste contemporanee verso lo stesso host;
+ * - timeout di connessione e di richiesta;
+ * - una cache condivisa delle risposte, limitata in byte, che rispetta Cache-Control max-age e no-store;
+ * - la rivalidazione condizionale con ETag e Last-Modified, così un'immagine non cambiata non viene riscaricata;
+ * - l'unione delle richieste contemporanee per lo stesso URL in un solo download.
+ * Il client HTTP si può sostituire nel costruttore, ad esempio per usare un server HTTP locale di prova.
+ * I metodi di download sono bloccanti e non vanno chiamati sull'Event Dispatch Thread.
+ */
+public class RemoteImageFetcher {
+    private static final Logger logger = Logger.getLogger(RemoteImageFetcher.class.getName());
+    /**
+     * Numero massimo di richieste contemporanee verso lo stesso host, se non diversamente configurato.
+     */
+    public static final int DEFAULT_MAX_PER_HOST = 4;
+    /**
+     * Dimensione massima della cache delle risposte, in byte, se non diversamente configurata.
+     */
+    public static final long DEFAULT_MAX_CACHE_BYTES = 32L * 1024 * 1024;
+    /**
+     * Dimensione massima di una singola immagine scaricata, in byte.
+     */
+    public static final long MAX_BODY_BYTES = 20L * 1024 * 1024;
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+    private static final long FRESCHEZZA_EURISTICA_MILLIS = 60_000L;
+    private static RemoteImageFetcher shared;
+
+    private final HttpClient client;
+    private final int maxPerHost;
+    private final Duration timeout;
+    private final long maxCacheBytes;
+    private final Map<String, Semaphore> permessiPerHost = new ConcurrentHashMap<>();
+    private final Map<URI, CompletableFuture<byte[]>> inCorso = new ConcurrentHashMap<>();
+    private final Map<URI, Risposta> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytesInCache;
+
+    /**
+     * Costruttore completo.
+     * @param client il client HTTP da usare
+     * @param maxPerHost il numero massimo di richieste contemporanee verso lo stesso host
+     * @param timeout il timeout di ogni richiesta
+     * @param maxCacheBytes la dimensione massima della cache delle risposte, in byte
+     */
+    public RemoteImageFetcher(HttpClient client, int maxPerHost, Duration timeout, long maxCacheBytes) {
+        this.client = client;
+        this.maxPerHost = maxPerHost;
+        this.timeout = timeout;
+        this.maxCacheBytes = maxCacheBytes;
+    }
+
+    /**
+     * Questo metodo restituisce il fetcher condiviso da tutta l'applicazione, con la sua cache.
+     * @return il fetcher condiviso
+     */
+    public static synchronized RemoteImageFetcher getShared() {
+        if (shared == null) {
+            HttpClient client = HttpClient.newBuilder()
+                    .connectTimeout(DEFAULT_TIMEOUT)
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .build();
+            shared = new RemoteImageFetcher(client, DEFAULT_MAX_PER_HOST, DEFAULT_TIMEOUT, DEFAULT_MAX_CACHE_BYTES);
+        }
+        return shared;
+    }
+
+    /**
+     * Indica se un percorso di immagine è un URL HTTP o HTTPS gestito da questa classe.
+     * @param path il percorso dell'immagine
+     * @return true se il percorso è un URL HTTP o HTTPS
+     */
+    public static boolean isRemote(String path) {
+        if (path == null) {
+            return false;
+        }
+        String lower = path.trim().toLowerCase(Locale.ROOT);
+        return lower.startsWith("http://") || lower.startsWith("https://");
+    }
+
+    /**
+     * Scarica il contenuto di un'immagine, usando la cache quando la risposta è ancora valida
+     * e rivalidandola con il server quando è scaduta.
+     * Se lo stesso URL è già in download, attende quel download invece di avviarne un altro.
+     * @param uri l'URL dell'immagine
+     * @return i byte dell'immagine
+     * @throws IOException se il download fallisce o il server risponde con un errore
+     */
+    public byte[] fetch(URI uri) throws IOException {
+        Risposta cached = getCached(uri);
+        if (cached != null && cached.isFresca(System.currentTimeMillis())) {
+            return cached.body;
+        }
+        CompletableFuture<byte[]> mio = new CompletableFuture<>();
+        CompletableFuture<byte[]> esistente = inCorso.putIfAbsent(uri, mio);
+        if (esistente != null) {
+            return attendi(esistente);
+        }
+        try {
+            byte[] body = download(uri, cached);
+            mio.complete(body);
+            return body;
+        } catch (IOException | RuntimeException e) {
+            mio.completeExceptionally(e);
+            throw e;
+        } finally {
+            inCorso.remove(uri, mio);
+        }
+    }
+
+    /**
+     * Esegue la richiesta HTTP rispettando il limite per host, eventualmente condizionale.
+     */
+    private byte[] download(URI uri, Risposta cached) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(timeout).GET();
+        if (cached != null && cached.etag != null) {
+            builder.header("If-None-Match", cached.etag);
+        }
+        if (cached != null && cached.lastModified != null) {
+            builder.header("If-Modified-Since", cached.lastModified);
+        }
+        Semaphore permessi = permessiPerHost.computeIfAbsent(String.valueOf(uri.getHost()), h -> new Semaphore(maxPerHost, true));
+        try {
+            if (!permessi.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IOException("Troppe richieste in corso verso " + uri.getHost());
+            }
+            try {
+                // Il permesso resta occupato finché il corpo non è stato letto, non solo fino all'arrivo degli header.
+                HttpResponse<InputStream> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream in = response.body()) {
+                    return gestisciRisposta(uri, cached, response, in);
+                }
+            } finally {
+                permessi.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Download interrotto: " + uri, e);
+        }
+    }
+
+    /**
+     * Interpreta la risposta: con 304 rinnova la risposta in cache, con 200 legge il corpo e lo mette in cache.
+     * Il corpo viene letto al più fino a MAX_BODY_BYTES: una risposta che dichiara o invia più byte viene rifiutata
+     * senza scaricarla per intero.
+     */
+    private byte[] gestisciRisposta(URI uri, Risposta cached, HttpResponse<InputStream> response, InputStream in) throws IOException {
+        long now = System.currentTimeMillis();
+        if (response.statusCode() == 304 && cached != null) {
+            Risposta rivalidata = cached.rinnovata(scadenza(response, now), header(response, "ETag"), header(response, "Last-Modified"));
+            putCached(uri, rivalidata);
+            return rivalidata.body;
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("Risposta HTTP " + response.statusCode() + " per " + uri);
+        }
+        long dichiarata = response.headers().firstValueAsLong("Content-Length").orElse(-1L);
+        if (dichiarata > MAX_BODY_BYTES) {
+            throw new IOException("Immagine troppo grande (" + dichiarata + " byte): " + uri);
+        }
+        byte[] body = in.readNBytes((int) MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            throw new IOException("Immagine troppo grande (oltre " + MAX_BODY_BYTES + " byte): " + uri);
+        }
+        String cacheControl = header(response, "Cache-Control");
+        if (cacheControl == null || !cacheControl.toLowerCase(Locale.ROOT).contains("no-store")) {
+            putCached(uri, new Risposta(body, header(response, "ETag"), header(response, "Last-Modified"), scadenza(response, now)));
+        }
+        return body;
+    }
+
+    /**
+     * Calcola fino a quando una risposta può essere usata senza rivalidarla:
+     * max-age se presente, zero con no-cache, altrimenti una breve freschezza euristica.
+     */
+    private static long scadenza(HttpResponse<?> response, long now) {
+        String cacheControl = header(response, "Cache-Control");
+        if (cacheControl != null) {
+            for (String direttiva : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+                String d = direttiva.trim();
+                if (d.equals("no-cache")) {
+                    return now;
+                }
+                if (d.startsWith("max-age=")) {
+                    try {
+                        return now + Long.parseLong(d.substring("max-age=".length())) * 1000L;
+                    } catch (NumberFormatException e) {
+                        logger.fine("max-age non valido: " + d);
+                    }
+                }
+            }
+        }
+        return now + FRESCHEZZA_EURISTICA_MILLIS;
+    }
+
+    private static String header(HttpResponse<?> response, String nome) {
+        Optional<String> valore = response.headers().firstValue(nome);
+        return valore.orElse(null);
+    }
+
+    private static byte[] attendi(CompletableFuture<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Download interrotto", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private synchronized Risposta getCached(URI uri) {
+        return cache.get(uri);
+    }
+
+    /**
+     * Inserisce una risposta nella cache e scarta le meno usate di recente finché non si rientra nel limite.
+     */
+    private synchronized void putCached(URI uri, Risposta risposta) {
+        if (risposta.body.length > maxCacheBytes) {
+            return;
+        }
+        Risposta precedente = cache.put(uri, risposta);
+        if (precedente != null) {
+            bytesInCache -= precedente.body.length;
+        }
+        bytesInCache += risposta.body.length;
+        Iterator<Risposta> meno = cache.values().iterator();
+        while (bytesInCache > maxCacheBytes && meno.hasNext()) {
+            bytesInCache -= meno.next().body.length;
+            meno.remove();
+        }
+    }
+
+    /**
+     * Svuota la cache delle risposte.
+     */
+    public synchronized void invalidateAll() {
+        cache.clear();
+        bytesInCache = 0;
+    }
+
+    /**
+     * Risposta in cache: il contenuto, i validatori per la rivalidazione e l'istante fino a cui è valida.
+     */
+    private static final class Risposta {
+        private final byte[] body;
+        private final String etag;
+        private final String lastModified;
+        private final long validaFino;
+
+        private Risposta(byte[] body, String etag, String lastModified, long validaFino) {
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.validaFino = validaFino;
+        }
+
+        private boolean isFresca(long now) {
+            return now < validaFino;
+        }
+
+        /**
+         * Copia della risposta dopo un 304: stesso contenuto, nuova scadenza e validatori aggiornati se inviati.
+         */
+        private Risposta rinnovata(long nuovaScadenza, String nuovoEtag, String nuovoLastModified) {
+            return new Risposta(body,
+                    nuovoEtag != null ? nuovoEtag : etag,
+                    nuovoLastModified != null ? nuovoLastModified : lastModified,
+                    nuovaScadenza);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+// src/gui/ThumbnailLoader.java
+package gui;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Questa classe carica le miniature delle immagini dei ToDo fuori dall'Event Dispatch Thread.
+ * L'immagine viene decodificata con il sottocampionamento di ImageIO, così la versione a piena risoluzione
+ * non viene mai tenuta in memoria, e poi ridotta alla dimensione richiesta.
+ * Le miniature pronte restano in una cache LRU limitata in byte, con chiave percorso, data di modifica
+ * del file e dimensione, quindi un file modificato viene ricaricato.
+ * Le miniature dei file locali vengono anche salvate in un ThumbnailStore su disco,
+ * così agli avvii successivi non serve decodificare di nuovo le immagini originali.
+ */
+public class ThumbnailLoader {
+    private static final Logger logger = Logger.getLogger(ThumbnailLoader.class.getName());
+    /**
+     * Dimensione massima della cache delle miniature, in byte, se non diversamente configurata.
+     */
+    public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+    private static final String PLACEHOLDER = "Caricamento...";
+    private static final String CHIAVE_RICHIESTA = "ThumbnailLoader.richiesta";
+    private static ThumbnailLoader shared;
+
+    private final long maxBytes;
+    private final ThumbnailStore store;
+    private final Map<String, String> hashPerFile = new ConcurrentHashMap<>();
+    private final ExecutorService decoder;
+    private final Map<String, ImageIcon> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytesInCache;
+
+    /**
+     * Costruttore del caricatore di miniature.
+     * @param maxBytes la dimensione massima della cache, in byte
+     * @param threads il numero di thread usati per decodificare le immagini
+     * @param store l'archivio su disco delle miniature, o null per non usarlo
+     */
+    public ThumbnailLoader(long maxBytes, int threads, ThumbnailStore store) {
+        this.maxBytes = maxBytes;
+        this.store = store;
+        this.decoder = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "thumbnail-decoder");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+
+    /**
+     * Questo metodo restituisce il caricatore condiviso da tutti i pannelli.
+     * @return il caricatore di miniature condiviso
+     */
+    public static synchronized ThumbnailLoader getShared() {
+        if (shared == null) {
+            shared = new ThumbnailLoader(DEFAULT_MAX_BYTES, Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+                    new ThumbnailStore(ThumbnailStore.defaultDirectory(), ThumbnailStore.DEFAULT_MAX_BYTES));
+        }
+        return shared;
+    }
+
+    /**
+     * Carica la miniatura di un'immagine, adattata a una dimensione massima mantenendo le proporzioni.
+     * Se la miniatura è in cache il future è già completato.
+     * Altrimenti l'immagine viene decodificata in background e il future viene completato sull'Event Dispatch Thread.
+     * @param path il percorso del file o l'URL dell'immagine
+     * @param maxWidth la larghezza massima della miniatura
+     * @param maxHeight l'altezza massima della miniatura
+     * @return un future con la miniatura, o con null se l'immagine non è leggibile
+     */
+    public CompletableFuture<ImageIcon> load(String path, int maxWidth, int maxHeight) {
+        if (path == null || path.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String chiave = chiave(path, maxWidth, maxHeight);
+        ImageIcon cached = get(chiave);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<ImageIcon> risultato = new CompletableFuture<>();
+        decoder.execute(() -> {
+            ImageIcon icon = null;
+            try {
+                BufferedImage image = loadLocalOrDecode(path, maxWidth, maxHeight);
+                if (image != null) {
+                    icon = new ImageIcon(image);
+                    put(chiave, icon, (long) image.getWidth() * image.getHeight() * 4);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warning("Impossibile caricare la miniatura di " + path + ": " + e.getMessage());
+            }
+            final ImageIcon pronta = icon;
+            SwingUtilities.invokeLater(() -> risultato.complete(pronta));
+        });
+        return risultato;
+    }
+
+    /**
+     * Mostra in un'etichetta la miniatura di un'immagine.
+     * Finché la miniatura non è pronta l'etichetta mostra un segnaposto; se nel frattempo all'etichetta
+     * viene chiesta un'altra immagine, il risultato della richiesta precedente viene ignorato.
+     * Va chiamato sull'Event Dispatch Thread.
+     * @param label l'etichetta in cui mostrare la miniatura
+     * @param path il percorso del file o l'URL dell'immagine
+     * @param maxWidth la larghezza massima della miniatura
+     * @param maxHeight l'altezza massima della miniatura
+     * @param testoErrore il testo da mostrare se l'immagine non è leggibile
+     */
+    public void loadInto(JLabel label, String path, int maxWidth, int maxHeight, String testoErrore) {
+        Object richiesta = new Object();
+        label.putClientProperty(CHIAVE_RICHIESTA, richiesta);
+        CompletableFuture<ImageIcon> futura = load(path, maxWidth, maxHeight);
+        if (!futura.isDone()) {
+            label.setIcon(null);
+            label.setText(PLACEHOLDER);
+        }
+        futura.thenAccept(icon -> {
+            if (label.getClientProperty(CHIAVE_RICHIESTA) != richiesta) {
+                return;
+            }
+            label.setIcon(icon);
+            label.setText(icon != null ? null : testoErrore);
+        });
+    }
+
+    /**
+     * Cerca prima la miniatura nell'archivio su disco, usando l'hash del contenuto; se non c'è la decodifica e la salva.
+     * Le immagini HTTP vengono scaricate tramite il RemoteImageFetcher condiviso, con la sua cache e rivalidazione.
+     */
+    private BufferedImage loadLocalOrDecode(String path, int maxWidth, int maxHeight) throws IOException {
+        if (RemoteImageFetcher.isRemote(path)) {
+            byte[] contenuto = RemoteImageFetcher.getShared().fetch(toUri(path));
+            String hash = store != null ? ThumbnailStore.hash(contenuto) : null;
+            BufferedImage image = hash != null ? store.read(hash, maxWidth, maxHeight) : null;
+            if (image == null) {
+                image = decode(new ByteArrayInputStream(contenuto), maxWidth, maxHeight);
+                if (image != null && hash != null) {
+                    store.write(hash, maxWidth, maxHeight, image);
+                }
+            }
+            return image;
+        }
+        File file = new File(path);
+        if (store == null || !file.isFile()) {
+            return decode(open(path), maxWidth, maxHeight);
+        }
+        String chiaveFile = path + '|' + file.lastModified() + '|' + file.length();
+        String hash = hashPerFile.get(chiaveFile);
+        if (hash == null) {
+            hash = ThumbnailStore.hash(file.toPath());
+            hashPerFile.put(chiaveFile, hash);
+        }
+        BufferedImage image = store.read(hash, maxWidth, maxHeight);
+        if (image == null) {
+            image = decode(open(path), maxWidth, maxHeight);
+            if (image != null) {
+                store.write(hash, maxWidth, maxHeight, image);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Decodifica un'immagine leggendo solo un pixel ogni n, con n scelto in modo che il risultato
+     * non sia più piccolo della dimensione richiesta, poi la riduce alla dimensione finale.
+     */
+    private BufferedImage decode(InputStream source, int maxWidth, int maxHeight) throws IOException {
+        try (InputStream in = source;
+             ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            if (iis == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int passo = Math.max(1, Math.min(width / maxWidth, height / maxHeight));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(passo, passo, 0, 0);
+                return scaleToFit(reader.read(0, param), maxWidth, maxHeight);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Riduce un'immagine per adattarla alla dimensione massima, mantenendo le proporzioni.
+     */
+    private static BufferedImage scaleToFit(BufferedImage image, int maxWidth, int maxHeight) {
+        double scala = Math.min(1.0, Math.min((double) maxWidth / image.getWidth(), (double) maxHeight / image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scala));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scala));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    /**
+     * Apre lo stream dell'immagine da file locale o da un URL non HTTP (ad esempio file:).
+     */
+    private static InputStream open(String path) throws IOException {
+        File file = new File(path);
+        if (file.exists()) {
+            return java.nio.file.Files.newInputStream(file.toPath());
+        }
+        return toUri(path).toURL().openStream();
+    }
+
+    private static URI toUri(String path) throws IOException {
+        try {
+            return new URI(path.trim());
+        } catch (java.net.URISyntaxException | IllegalArgumentException e) {
+            throw new IOException("Percorso immagine non valido: " + path, e);
+        }
+    }
+
+    /**
+     * Costruisce la chiave della cache: percorso, data di modifica del file (0 per gli URL) e dimensione.
+     */
+    private static String chiave(String path, int maxWidth, int maxHeight) {
+        File file = new File(path);
+        long modificato = file.exists() ? file.lastModified() : 0L;
+        return path + '|' + modificato + '|' + maxWidth + 'x' + maxHeight;
+    }
+
+    private synchronized ImageIcon get(String chiave) {
+        return cache.get(chiave);
+    }
+
+    /**
+     * Inserisce una miniatura nella cache e scarta le meno usate di recente finché non si rientra nel limite.
+     */
+    private synchronized void put(String chiave, ImageIcon icon, long bytes) {
+        if (bytes > maxBytes) {
+            return;
+        }
+        ImageIcon precedente = cache.put(chiave, icon);
+        if (precedente != null) {
+            bytesInCache -= dimensione(precedente);
+        }
+        bytesInCache += bytes;
+        Iterator<ImageIcon> meno = cache.values().iterator();
+        while (bytesInCache > maxBytes && meno.hasNext()) {
+            bytesInCache -= dimensione(meno.next());
+            meno.remove();
+        }
+    }
+
+    private static long dimensione(ImageIcon icon) {
+        return (long) icon.getIconWidth() * icon.getIconHeight() * 4;
+    }
+
+    /**
+     * Questo metodo restituisce i byte occupati dalle miniature in cache.
+     * @return i byte occupati dalla cache
+     */
+    public synchronized long getBytesInCache() {
+        return bytesInCache;
+    }
+}
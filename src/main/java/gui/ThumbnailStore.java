@@ -0,0 +1,213 @@
+// src/gui/ThumbnailStore.java
+package gui;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Archivio su disco delle miniature già calcolate, così a ogni avvio non serve decodificare di nuovo le immagini originali.
+ * Le miniature sono indicizzate con l'hash SHA-256 del contenuto dell'immagine originale e con la dimensione richiesta,
+ * quindi due percorsi con la stessa immagine condividono la miniatura e un file modificato ne produce una nuova.
+ * Ogni miniatura è salvata come PNG già ridotto e viene riletta per intero con una sola lettura:
+ * il file non viene mappato in memoria, così può essere sostituito o eliminato subito dopo anche su Windows.
+ * L'archivio ha una dimensione massima: quando la supera elimina le miniature lette meno di recente.
+ * Tutti i metodi fanno I/O su disco e non vanno chiamati sull'Event Dispatch Thread.
+ */
+public class ThumbnailStore {
+    private static final Logger logger = Logger.getLogger(ThumbnailStore.class.getName());
+    /**
+     * Dimensione massima dell'archivio, in byte, se non diversamente configurata.
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    private static final String ESTENSIONE = ".png";
+
+    private final Path directory;
+    private final long maxBytes;
+    private long bytesOnDisk = -1;
+
+    /**
+     * Costruttore dell'archivio.
+     * @param directory la cartella in cui salvare le miniature, creata se non esiste
+     * @param maxBytes la dimensione massima dell'archivio, in byte
+     */
+    public ThumbnailStore(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Questo metodo restituisce la cartella di default dell'archivio, nella home dell'utente.
+     * @return la cartella di default delle miniature
+     */
+    public static Path defaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".todo-app", "thumbnails");
+    }
+
+    /**
+     * Calcola l'hash SHA-256 del contenuto di un file, leggendolo tramite memory mapping.
+     * @param file il file di cui calcolare l'hash
+     * @return l'hash in esadecimale
+     * @throws IOException se il file non è leggibile
+     */
+    public static String hash(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(Integer.MAX_VALUE, size - position);
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+                position += length;
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Calcola l'hash SHA-256 di un contenuto già in memoria, ad esempio un'immagine scaricata.
+     * @param contenuto i byte dell'immagine
+     * @return l'hash in esadecimale
+     */
+    public static String hash(byte[] contenuto) {
+        return HexFormat.of().formatHex(newDigest().digest(contenuto));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponibile", e);
+        }
+    }
+
+    /**
+     * Legge una miniatura dall'archivio e la segna come usata di recente.
+     * @param hash l'hash del contenuto dell'immagine originale
+     * @param width la larghezza massima della miniatura
+     * @param height l'altezza massima della miniatura
+     * @return la miniatura, o null se non è presente o non è leggibile
+     */
+    public BufferedImage read(String hash, int width, int height) {
+        Path file = pathOf(hash, width, height);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(Files.readAllBytes(file)));
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return image;
+        } catch (IOException e) {
+            logger.warning("Miniatura non leggibile, verrà ricreata: " + file + " - " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Salva una miniatura nell'archivio ed elimina le meno usate se si supera la dimensione massima.
+     * Il file viene scritto in un file temporaneo e poi rinominato, così un lettore non vede mai un file a metà.
+     * @param hash l'hash del contenuto dell'immagine originale
+     * @param width la larghezza massima della miniatura
+     * @param height l'altezza massima della miniatura
+     * @param image la miniatura da salvare
+     */
+    public void write(String hash, int width, int height, BufferedImage image) {
+        Path file = pathOf(hash, width, height);
+        try {
+            Files.createDirectories(file.getParent());
+            long precedente = Files.exists(file) ? Files.size(file) : 0;
+            Path temp = Files.createTempFile(file.getParent(), hash, ".tmp");
+            try {
+                if (!ImageIO.write(image, "png", temp.toFile())) {
+                    return;
+                }
+                try {
+                    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            aggiungiEdElimina(Files.size(file) - precedente);
+        } catch (IOException | UncheckedIOException e) {
+            logger.warning("Impossibile salvare la miniatura " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Aggiorna lo spazio occupato con la differenza indicata, negativa se una miniatura è stata sostituita
+     * da una più piccola, e, se supera il limite, elimina le miniature lette meno di recente
+     * fino a scendere al 90% del limite.
+     */
+    private synchronized void aggiungiEdElimina(long aggiunti) throws IOException {
+        if (bytesOnDisk < 0) {
+            bytesOnDisk = 0;
+            for (Path file : listThumbnails()) {
+                bytesOnDisk += Files.size(file);
+            }
+        } else {
+            bytesOnDisk += aggiunti;
+        }
+        if (bytesOnDisk <= maxBytes) {
+            return;
+        }
+        List<Path> files = listThumbnails();
+        files.sort(Comparator.comparingLong(ThumbnailStore::lastModified));
+        long obiettivo = maxBytes * 9 / 10;
+        for (Path file : files) {
+            if (bytesOnDisk <= obiettivo) {
+                break;
+            }
+            long size = Files.size(file);
+            if (Files.deleteIfExists(file)) {
+                bytesOnDisk -= size;
+            }
+        }
+    }
+
+    private List<Path> listThumbnails() throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (Stream<Path> stream = Files.walk(directory, 2)) {
+            stream.filter(p -> p.getFileName().toString().endsWith(ESTENSIONE) && Files.isRegularFile(p))
+                    .forEach(files::add);
+        }
+        return files;
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Percorso della miniatura: le miniature sono divise in sottocartelle in base ai primi due caratteri dell'hash.
+     */
+    private Path pathOf(String hash, int width, int height) {
+        return directory.resolve(hash.substring(0, 2)).resolve(hash + '_' + width + 'x' + height + ESTENSIONE);
+    }
+}
@@ -0,0 +1,277 @@
+// src/gui/VirtualToDoList.java
+package gui;
+
+import model.ToDo;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Lista virtualizzata di ToDo da inserire in uno JScrollPane.
+ * Invece di creare una scheda per ogni ToDo, crea solo le schede delle righe visibili nel viewport
+ * più qualche riga di margine (overscan), e le riutilizza durante lo scorrimento.
+ * Tutte le righe hanno la stessa altezza, quindi la posizione di ogni ToDo si calcola senza layout.
+ * Le schede sono associate all'ID del ToDo che mostrano: se un ToDo resta visibile e i suoi dati
+ * non cambiano, la sua scheda non viene ricostruita. Il ToDo corrente di ogni scheda viene comunque aggiornato
+ * a ogni passaggio, e le azioni della scheda devono leggerlo con todoDellaScheda invece di tenere quello del bind.
+ * Quando lo scorrimento si avvicina all'ultimo ToDo viene avvisato l'eventuale ascoltatore di fine lista,
+ * così chi usa la lista può caricare la pagina successiva.
+ */
+public class VirtualToDoList extends JComponent implements Scrollable {
+
+    /**
+     * Crea e riempie le schede dei ToDo visualizzate dalla lista.
+     */
+    public interface CardRenderer {
+        /**
+         * Crea una scheda vuota, che verrà riempita da bind.
+         * @return la scheda creata
+         */
+        JPanel createCard();
+
+        /**
+         * Riempie una scheda con i dati di un ToDo, sostituendo l'eventuale contenuto precedente.
+         * @param card la scheda da riempire
+         * @param todo il ToDo da visualizzare
+         */
+        void bind(JPanel card, ToDo todo);
+
+        /**
+         * Restituisce l'impronta di un ToDo, cioè i dati che influenzano la sua scheda.
+         * Se l'impronta non cambia, la scheda già riempita non viene ricostruita.
+         * @param todo il ToDo
+         * @return l'impronta del ToDo
+         */
+        Object impronta(ToDo todo);
+    }
+
+    private final int cardWidth;
+    private final int cardHeight;
+    private final int rowHeight;
+    private final int overscan;
+    private final CardRenderer renderer;
+    /**
+     * Chiave della proprietà della scheda che contiene il ToDo mostrato.
+     */
+    private static final String PROPRIETA_TODO = "VirtualToDoList.todo";
+    private final Map<Integer, Scheda> visibili = new HashMap<>();
+    private final Deque<Scheda> libere = new ArrayDeque<>();
+    private List<ToDo> todos = new ArrayList<>();
+    private JViewport viewport;
+    private Runnable fineListaListener;
+    private final javax.swing.event.ChangeListener viewportListener = e -> aggiornaRigheVisibili();
+
+    /**
+     * Costruttore della lista virtualizzata.
+     * @param cardWidth la larghezza di ogni scheda
+     * @param cardHeight l'altezza di ogni scheda
+     * @param gap lo spazio verticale tra una scheda e la successiva
+     * @param overscan il numero di righe da preparare sopra e sotto quelle visibili
+     * @param renderer l'oggetto che crea e riempie le schede
+     */
+    public VirtualToDoList(int cardWidth, int cardHeight, int gap, int overscan, CardRenderer renderer) {
+        this.cardWidth = cardWidth;
+        this.cardHeight = cardHeight;
+        this.rowHeight = cardHeight + gap;
+        this.overscan = overscan;
+        this.renderer = renderer;
+        setLayout(null);
+        setOpaque(true);
+    }
+
+    /**
+     * Imposta i ToDo da visualizzare. La lista non viene copiata.
+     * Va chiamato sull'Event Dispatch Thread.
+     * @param todos i ToDo da visualizzare
+     */
+    public void setToDos(List<ToDo> todos) {
+        this.todos = todos != null ? todos : new ArrayList<>();
+        revalidate();
+        aggiornaRigheVisibili();
+        repaint();
+    }
+
+    /**
+     * Imposta l'azione da eseguire quando le righe preparate raggiungono l'ultimo ToDo della lista.
+     * L'azione viene eseguita sull'Event Dispatch Thread, dopo l'aggiornamento in corso,
+     * e può essere chiamata più volte: deve ignorare le richieste mentre una pagina è già in caricamento.
+     * @param fineListaListener l'azione da eseguire, o null per nessuna
+     */
+    public void setFineListaListener(Runnable fineListaListener) {
+        this.fineListaListener = fineListaListener;
+    }
+
+    /**
+     * Questo metodo restituisce il numero di schede attualmente create, visibili o pronte al riuso.
+     * @return il numero di schede create
+     */
+    public int getCardCount() {
+        return getComponentCount();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        Container parent = SwingUtilities.getUnwrappedParent(this);
+        if (parent instanceof JViewport) {
+            viewport = (JViewport) parent;
+            viewport.addChangeListener(viewportListener);
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        if (viewport != null) {
+            viewport.removeChangeListener(viewportListener);
+            viewport = null;
+        }
+        super.removeNotify();
+    }
+
+    @Override
+    public void doLayout() {
+        aggiornaRigheVisibili();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (isOpaque()) {
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) {
+            return super.getPreferredSize();
+        }
+        return new Dimension(cardWidth, todos.size() * rowHeight);
+    }
+
+    /**
+     * Calcola le righe visibili, libera le schede uscite dal viewport
+     * e assegna le schede alle righe entrate, riempiendole solo se necessario.
+     */
+    private void aggiornaRigheVisibili() {
+        Rectangle area = getVisibleRect();
+        int prima = 0;
+        int ultima = -1;
+        if (!todos.isEmpty() && area.height > 0) {
+            prima = Math.max(0, area.y / rowHeight - overscan);
+            ultima = Math.min(todos.size() - 1, (area.y + area.height) / rowHeight + overscan);
+        }
+
+        Map<Integer, Integer> righe = new HashMap<>();
+        for (int riga = prima; riga <= ultima; riga++) {
+            righe.put(todos.get(riga).getId(), riga);
+        }
+        Iterator<Map.Entry<Integer, Scheda>> voci = visibili.entrySet().iterator();
+        while (voci.hasNext()) {
+            Scheda scheda = voci.next().getValue();
+            if (!righe.containsKey(scheda.idToDo)) {
+                scheda.card.setVisible(false);
+                libere.push(scheda);
+                voci.remove();
+            }
+        }
+
+        for (int riga = prima; riga <= ultima; riga++) {
+            ToDo todo = todos.get(riga);
+            Scheda scheda = visibili.get(todo.getId());
+            if (scheda == null) {
+                scheda = libere.isEmpty() ? nuovaScheda() : libere.pop();
+                scheda.idToDo = todo.getId();
+                scheda.impronta = null;
+                visibili.put(todo.getId(), scheda);
+            }
+            scheda.card.putClientProperty(PROPRIETA_TODO, todo);
+            Object impronta = renderer.impronta(todo);
+            if (scheda.impronta == null || !Objects.equals(impronta, scheda.impronta)) {
+                renderer.bind(scheda.card, todo);
+                scheda.impronta = impronta;
+            }
+            scheda.card.setBounds(0, riga * rowHeight, cardWidth, cardHeight);
+            scheda.card.setVisible(true);
+            scheda.card.validate();
+        }
+
+        if (fineListaListener != null && ultima >= 0 && ultima == todos.size() - 1) {
+            SwingUtilities.invokeLater(fineListaListener);
+        }
+    }
+
+    /**
+     * Restituisce il ToDo mostrato ora dalla scheda che contiene un componente, ad esempio un bottone della scheda.
+     * Quando l'impronta non cambia la scheda non viene ricostruita, quindi i suoi ascoltatori possono riferirsi
+     * a un'istanza precedente del ToDo: questo metodo restituisce sempre quella dell'ultima lista impostata.
+     * @param componente un componente della scheda, o la scheda stessa
+     * @return il ToDo corrente della scheda, o null se il componente non appartiene a una scheda
+     */
+    public static ToDo todoDellaScheda(Component componente) {
+        for (Component c = componente; c != null; c = c.getParent()) {
+            if (c instanceof JComponent) {
+                Object todo = ((JComponent) c).getClientProperty(PROPRIETA_TODO);
+                if (todo instanceof ToDo) {
+                    return (ToDo) todo;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Scheda nuovaScheda() {
+        Scheda scheda = new Scheda(renderer.createCard());
+        add(scheda.card);
+        return scheda;
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(cardWidth, Math.min(getPreferredSize().height, rowHeight * 3));
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? Math.max(1, rowHeight / 4) : 10;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        if (orientation == SwingConstants.VERTICAL) {
+            return Math.max(rowHeight, visibleRect.height - visibleRect.height % rowHeight);
+        }
+        return visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+
+    /**
+     * Scheda riutilizzabile: il pannello, l'ID del ToDo che mostra e l'impronta dei dati con cui è stato riempito.
+     */
+    private static final class Scheda {
+        private final JPanel card;
+        private int idToDo;
+        private Object impronta;
+
+        private Scheda(JPanel card) {
+            this.card = card;
+        }
+    }
+}
@@ -0,0 +1,419 @@
+// src/gui/ZoomableImageViewer.java
+package gui;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Visualizzatore di immagini a piena risoluzione con zoom, da inserire in uno JScrollPane.
+ * L'immagine originale non viene mai caricata tutta in memoria:
+ * - all'apertura viene decodificata una panoramica sottocampionata, di al massimo PANORAMICA_MAX pixel per lato,
+ *   usata subito per disegnare qualunque livello di zoom;
+ * - quando lo zoom o lo scorrimento si fermano, viene decodificata solo la regione visibile
+ *   (ImageReadParam.setSourceRegion) al sottocampionamento adatto allo zoom corrente (setSourceSubsampling),
+ *   che sostituisce progressivamente la panoramica.
+ * La memoria usata dipende quindi dalla dimensione dello schermo e non da quella dell'immagine.
+ * La decodifica avviene su un thread dedicato, mai sull'Event Dispatch Thread.
+ */
+public class ZoomableImageViewer extends JComponent implements Scrollable, AutoCloseable {
+    private static final Logger logger = Logger.getLogger(ZoomableImageViewer.class.getName());
+    private static final int PANORAMICA_MAX = 1024;
+    private static final double ZOOM_MIN = 0.01;
+    private static final double ZOOM_MAX = 8.0;
+    private static final double PASSO_ZOOM = 1.25;
+    private static final int RITARDO_RIFINITURA_MS = 120;
+
+    private final ExecutorService decoder = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "image-viewer-decoder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Timer timerRifinitura;
+    private volatile ImageInputStream input;
+    private volatile ImageReader reader;
+    private int larghezza;
+    private int altezza;
+    private BufferedImage panoramica;
+    private Dettaglio dettaglio;
+    private double zoom = 1.0;
+    private volatile long generazione;
+    private String messaggio = "Caricamento...";
+    private JViewport viewport;
+    private final javax.swing.event.ChangeListener viewportListener = e -> pianificaRifinitura();
+
+    /**
+     * Costruttore del visualizzatore. L'immagine viene aperta in background.
+     * @param path il percorso del file o l'URL dell'immagine
+     * @param seNonLeggibile azione eseguita sull'Event Dispatch Thread se l'immagine non può essere aperta, o null
+     */
+    public ZoomableImageViewer(String path, Runnable seNonLeggibile) {
+        setOpaque(true);
+        setBackground(Color.DARK_GRAY);
+        timerRifinitura = new Timer(RITARDO_RIFINITURA_MS, e -> rifinisci());
+        timerRifinitura.setRepeats(false);
+        addMouseWheelListener(this::onMouseWheel);
+        decoder.execute(() -> apri(path, seNonLeggibile));
+    }
+
+    /**
+     * Apre l'immagine in una nuova finestra con i comandi di zoom.
+     * Chiudendo la finestra vengono rilasciate tutte le risorse del visualizzatore.
+     * @param path il percorso del file o l'URL dell'immagine
+     * @param title il titolo della finestra
+     * @param seNonLeggibile azione eseguita se l'immagine non può essere aperta, dopo la chiusura della finestra, o null
+     */
+    public static void showInFrame(String path, String title, Runnable seNonLeggibile) {
+        JFrame frame = new JFrame(title);
+        frame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        ZoomableImageViewer viewer = new ZoomableImageViewer(path, () -> {
+            frame.dispose();
+            if (seNonLeggibile != null) {
+                seNonLeggibile.run();
+            }
+        });
+        JScrollPane scrollPane = new JScrollPane(viewer);
+        scrollPane.getViewport().setBackground(Color.DARK_GRAY);
+
+        JPanel comandi = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JButton piu = new JButton("+");
+        JButton meno = new JButton("-");
+        JButton adatta = new JButton("Adatta");
+        JButton reale = new JButton("100%");
+        piu.addActionListener(e -> viewer.zoomAlCentro(viewer.zoom * PASSO_ZOOM));
+        meno.addActionListener(e -> viewer.zoomAlCentro(viewer.zoom / PASSO_ZOOM));
+        adatta.addActionListener(e -> viewer.adatta());
+        reale.addActionListener(e -> viewer.zoomAlCentro(1.0));
+        comandi.add(meno);
+        comandi.add(piu);
+        comandi.add(adatta);
+        comandi.add(reale);
+
+        frame.add(comandi, BorderLayout.NORTH);
+        frame.add(scrollPane, BorderLayout.CENTER);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                viewer.close();
+            }
+        });
+        frame.setSize(900, 700);
+        frame.setLocationRelativeTo(null);
+        frame.setVisible(true);
+    }
+
+    /**
+     * Apre il lettore dell'immagine e decodifica la panoramica. Eseguito sul thread di decodifica.
+     */
+    private void apri(String path, Runnable seNonLeggibile) {
+        try {
+            input = openInput(path);
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Formato immagine non supportato");
+            }
+            reader = readers.next();
+            reader.setInput(input, false, true);
+            int w = reader.getWidth(0);
+            int h = reader.getHeight(0);
+            int passo = Math.max(1, (int) Math.ceil(Math.max(w, h) / (double) PANORAMICA_MAX));
+            ImageReadParam param = reader.getDefaultReadParam();
+            param.setSourceSubsampling(passo, passo, 0, 0);
+            BufferedImage letta = reader.read(0, param);
+            SwingUtilities.invokeLater(() -> {
+                larghezza = w;
+                altezza = h;
+                panoramica = letta;
+                messaggio = null;
+                adatta();
+            });
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Impossibile aprire l'immagine " + path + ": " + e.getMessage());
+            SwingUtilities.invokeLater(() -> {
+                messaggio = "Immagine non caricabile";
+                repaint();
+                if (seNonLeggibile != null) {
+                    seNonLeggibile.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Apre uno stream ad accesso casuale sull'immagine: direttamente dal file se locale,
+     * altrimenti dai byte scaricati tramite il RemoteImageFetcher condiviso.
+     */
+    private static ImageInputStream openInput(String path) throws IOException {
+        File file = new File(path);
+        if (file.isFile()) {
+            return ImageIO.createImageInputStream(file);
+        }
+        try {
+            URI uri = new URI(path.trim());
+            if ("file".equalsIgnoreCase(uri.getScheme())) {
+                return ImageIO.createImageInputStream(new File(uri));
+            }
+            return ImageIO.createImageInputStream(new ByteArrayInputStream(RemoteImageFetcher.getShared().fetch(uri)));
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            throw new IOException("Percorso immagine non valido: " + path, e);
+        }
+    }
+
+    /**
+     * Imposta lo zoom in modo che l'immagine intera stia nel viewport, senza ingrandirla oltre il 100%.
+     */
+    public void adatta() {
+        if (panoramica == null) {
+            return;
+        }
+        Dimension area = viewport != null ? viewport.getExtentSize() : getSize();
+        double nuovoZoom = 1.0;
+        if (area.width > 0 && area.height > 0) {
+            nuovoZoom = Math.min(1.0, Math.min((double) area.width / larghezza, (double) area.height / altezza));
+        }
+        zoomAlCentro(nuovoZoom);
+    }
+
+    /**
+     * Cambia lo zoom mantenendo fermo il centro dell'area visibile.
+     * @param nuovoZoom il nuovo fattore di zoom
+     */
+    public void zoomAlCentro(double nuovoZoom) {
+        Rectangle visibile = getVisibleRect();
+        zoomIn(new Point(visibile.x + visibile.width / 2, visibile.y + visibile.height / 2), nuovoZoom);
+    }
+
+    /**
+     * Ctrl + rotella del mouse cambia lo zoom intorno al puntatore; senza Ctrl la rotella scorre normalmente.
+     */
+    private void onMouseWheel(MouseWheelEvent e) {
+        if (e.isControlDown() && panoramica != null) {
+            double fattore = Math.pow(PASSO_ZOOM, -e.getPreciseWheelRotation());
+            zoomIn(e.getPoint(), zoom * fattore);
+        } else if (getParent() != null) {
+            getParent().dispatchEvent(SwingUtilities.convertMouseEvent(this, e, getParent()));
+        }
+    }
+
+    /**
+     * Cambia lo zoom lasciando sotto il punto indicato (in coordinate del componente) lo stesso punto dell'immagine.
+     */
+    private void zoomIn(Point punto, double nuovoZoom) {
+        nuovoZoom = Math.max(ZOOM_MIN, Math.min(ZOOM_MAX, nuovoZoom));
+        if (panoramica == null || nuovoZoom == zoom) {
+            repaint();
+            return;
+        }
+        double xImmagine = punto.x / zoom;
+        double yImmagine = punto.y / zoom;
+        Point posizione = viewport != null ? viewport.getViewPosition() : new Point();
+        int dx = punto.x - posizione.x;
+        int dy = punto.y - posizione.y;
+        zoom = nuovoZoom;
+        dettaglio = null;
+        revalidate();
+        if (viewport != null) {
+            viewport.validate();
+            Dimension area = viewport.getExtentSize();
+            Dimension totale = getPreferredSize();
+            int x = (int) Math.round(xImmagine * zoom) - dx;
+            int y = (int) Math.round(yImmagine * zoom) - dy;
+            x = Math.max(0, Math.min(x, totale.width - area.width));
+            y = Math.max(0, Math.min(y, totale.height - area.height));
+            viewport.setViewPosition(new Point(x, y));
+        }
+        repaint();
+        pianificaRifinitura();
+    }
+
+    /**
+     * Avvia, con un breve ritardo, la decodifica della regione visibile alla risoluzione dello zoom corrente.
+     * Il ritardo evita di decodificare regioni intermedie mentre l'utente sta ancora scorrendo o zoomando.
+     */
+    private void pianificaRifinitura() {
+        if (panoramica != null) {
+            timerRifinitura.restart();
+        }
+    }
+
+    /**
+     * Decodifica la regione visibile se la panoramica non ha abbastanza dettaglio per lo zoom corrente.
+     */
+    private void rifinisci() {
+        if (panoramica == null || reader == null) {
+            return;
+        }
+        double scalaPanoramica = (double) panoramica.getWidth() / larghezza;
+        if (scalaPanoramica >= zoom) {
+            dettaglio = null;
+            repaint();
+            return;
+        }
+        Rectangle visibile = getVisibleRect();
+        Rectangle sorgente = new Rectangle(
+                (int) Math.floor(visibile.x / zoom), (int) Math.floor(visibile.y / zoom),
+                (int) Math.ceil(visibile.width / zoom) + 1, (int) Math.ceil(visibile.height / zoom) + 1)
+                .intersection(new Rectangle(0, 0, larghezza, altezza));
+        if (sorgente.isEmpty()) {
+            return;
+        }
+        Dettaglio attuale = dettaglio;
+        if (attuale != null && attuale.zoom == zoom && attuale.sorgente.contains(sorgente)) {
+            return;
+        }
+        final double zoomRichiesto = zoom;
+        final int passo = Math.max(1, (int) Math.floor(1.0 / zoom));
+        final long richiesta = ++generazione;
+        decoder.execute(() -> {
+            if (richiesta != generazione) {
+                return; // nel frattempo è stata chiesta un'altra regione
+            }
+            try {
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(sorgente);
+                param.setSourceSubsampling(passo, passo, 0, 0);
+                BufferedImage letta = reader.read(0, param);
+                SwingUtilities.invokeLater(() -> {
+                    if (richiesta == generazione) {
+                        dettaglio = new Dettaglio(sorgente, zoomRichiesto, letta);
+                        repaint();
+                    }
+                });
+            } catch (IOException | RuntimeException e) {
+                logger.warning("Impossibile decodificare la regione " + sorgente + ": " + e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+        if (panoramica == null) {
+            if (messaggio != null) {
+                g.setColor(Color.WHITE);
+                g.drawString(messaggio, 20, 30);
+            }
+            return;
+        }
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2.drawImage(panoramica, 0, 0, (int) Math.round(larghezza * zoom), (int) Math.round(altezza * zoom), null);
+            Dettaglio attuale = dettaglio;
+            if (attuale != null && attuale.zoom == zoom) {
+                Rectangle s = attuale.sorgente;
+                g2.drawImage(attuale.immagine,
+                        (int) Math.round(s.x * zoom), (int) Math.round(s.y * zoom),
+                        (int) Math.round(s.width * zoom), (int) Math.round(s.height * zoom), null);
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (panoramica == null) {
+            return new Dimension(400, 300);
+        }
+        return new Dimension((int) Math.round(larghezza * zoom), (int) Math.round(altezza * zoom));
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        Container parent = SwingUtilities.getUnwrappedParent(this);
+        if (parent instanceof JViewport) {
+            viewport = (JViewport) parent;
+            viewport.addChangeListener(viewportListener);
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        if (viewport != null) {
+            viewport.removeChangeListener(viewportListener);
+            viewport = null;
+        }
+        super.removeNotify();
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(800, 600);
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return 20;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+
+    /**
+     * Rilascia il lettore, lo stream dell'immagine e il thread di decodifica.
+     */
+    @Override
+    public void close() {
+        timerRifinitura.stop();
+        generazione++;
+        decoder.execute(() -> {
+            if (reader != null) {
+                reader.dispose();
+            }
+            if (input != null) {
+                try {
+                    input.close();
+                } catch (IOException e) {
+                    logger.fine("Errore chiusura immagine: " + e.getMessage());
+                }
+            }
+        });
+        decoder.shutdown();
+    }
+
+    /**
+     * Regione decodificata ad alta risoluzione: l'area dell'immagine originale, lo zoom per cui è stata letta e i pixel.
+     */
+    private static final class Dettaglio {
+        private final Rectangle sorgente;
+        private final double zoom;
+        private final BufferedImage immagine;
+
+        private Dettaglio(Rectangle sorgente, double zoom, BufferedImage immagine) {
+            this.sorgente = sorgente;
+            this.zoom = zoom;
+            this.immagine = immagine;
+        }
+    }
+}
@@ -12,6 +12,7 @@ public class Board {
     private String titolo;
     private String username;
     private int idUtente;
+    private int versione;
     private final List<ToDo> todos;
 
     /**
@@ -119,4 +120,21 @@ public class Board {
     public void setIdUtente(int idUtente) {
         this.idUtente = idUtente;
     }
-}
\ No newline at end of file
+
+    /**
+     * Questo metodo restituisce la versione della riga della bacheca letta dal database.
+     * Viene incrementata dal database a ogni aggiornamento e usata per riconoscere le modifiche concorrenti.
+     * @return versione della bacheca
+     */
+    public int getVersione() {
+        return versione;
+    }
+
+    /**
+     * Questo metodo imposta la versione della riga della bacheca, letta dal database o restituita da un aggiornamento.
+     * @param versione versione della bacheca
+     */
+    public void setVersione(int versione) {
+        this.versione = versione;
+    }
+}
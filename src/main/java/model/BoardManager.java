@@ -5,9 +5,13 @@ import dao.*;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 /**
  * Questa classe gestisce le operazioni relative alle bacheche (Board) e alle attività (ToDo).
@@ -19,6 +23,20 @@ public class BoardManager {
     private ToDoDAO toDoDAO;
     private UtenteDAO utenteDAO;
     private static final Logger logger = Logger.getLogger(BoardManager.class.getName());
+    /**
+     * Numero di ToDo letti per ogni pagina di una bacheca, se non diversamente richiesto.
+     */
+    public static final int DIMENSIONE_PAGINA = 50;
+    /**
+     * Versione corrente dei ToDo di ogni bacheca: viene incrementata ad ogni scrittura fatta tramite questo manager.
+     */
+    private final Map<Integer, AtomicLong> versioniBacheche = new ConcurrentHashMap<>();
+    /**
+     * Ultima lista di riepiloghi letta dal database per ogni bacheca, con la versione a cui si riferisce.
+     * La cache conserva i riepiloghi immutabili e non i ToDo: ogni lettura crea ToDo nuovi, così le modifiche
+     * non ancora salvate di un chiamante non sono visibili agli altri.
+     */
+    private final Map<Integer, SnapshotToDo> snapshotToDo = new ConcurrentHashMap<>();
 
     /**
      * Costruttore della classe BoardManager.
@@ -59,107 +77,222 @@ public class BoardManager {
      */
     public void addToDo(ToDo todo) {
         toDoDAO.addToDo(todo);
+        invalidaBacheca(todo.getIdBoard());
     }
 
     /**
      * Recupera tutti i ToDo associati a una specifica bacheca.
-     * Questo metodo utilizza il ToDoDAO per ottenere la lista dei ToDo per l'ID della bacheca specificata.
+     * Se la bacheca non è stata modificata dall'ultima lettura, la lista viene servita dalla cache
+     * senza interrogare il database; altrimenti viene riletta tramite il ToDoDAO.
+     * Le bacheche con ToDo condivisi da altri utenti vengono rilette ogni volta, così le modifiche del proprietario sono subito visibili.
+     * I ToDo sono caricati come riepilogo, senza descrizione, URL, immagine e creatore:
+     * prima di usare questi campi va chiamato caricaDettagli.
+     * La lista e i ToDo restituiti sono nuovi a ogni chiamata e possono essere modificati dal chiamante.
+     * Se la lettura dal database fallisce restituisce una lista vuota, senza salvarla in cache.
      * @param boardId L'ID della bacheca per cui recuperare i ToDo.
      * @return Restituisce una lista di ToDo associati alla bacheca specificata.
      */
     public List<ToDo> getToDosForBoard(int boardId) {
-        return toDoDAO.getToDosByBoardId(boardId);
+        long versione = versioneBacheca(boardId).get();
+        SnapshotToDo snapshot = snapshotToDo.get(boardId);
+        if (snapshot != null && snapshot.versione == versione) {
+            return snapshot.toToDos(Integer.MAX_VALUE);
+        }
+        List<ToDoSummary> summaries = toDoDAO.getToDoSummariesByBoardId(boardId);
+        if (summaries == null) {
+            return new ArrayList<>(); // lettura fallita: non va messa in cache come bacheca vuota
+        }
+        SnapshotToDo letto = new SnapshotToDo(versione, summaries);
+        // La versione è letta prima della query: se nel frattempo arriva una scrittura, lo snapshot risulta già vecchio.
+        salvaSnapshot(boardId, letto);
+        return letto.toToDos(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Recupera una pagina dei ToDo di una bacheca, ordinati per posizione e ID.
+     * Se la lista completa della bacheca è in cache e aggiornata, la pagina viene ritagliata da quella
+     * senza interrogare il database; altrimenti viene letta con la paginazione per chiave.
+     * Come in getToDosForBoard, i ToDo sono caricati come riepilogo.
+     * @param boardId L'ID della bacheca.
+     * @param dopo Il cursore restituito dalla pagina precedente, o null per la prima pagina.
+     * @param dimensione Il numero massimo di ToDo della pagina.
+     * @return La pagina, con il cursore della successiva se ci sono altri ToDo.
+     */
+    public PaginaToDo getPaginaToDo(int boardId, PaginaToDo.Cursore dopo, int dimensione) {
+        List<ToDo> todos = new ArrayList<>();
+        SnapshotToDo snapshot = snapshotToDo.get(boardId);
+        if (snapshot != null && snapshot.versione == versioneBacheca(boardId).get()) {
+            for (ToDoSummary summary : snapshot.riepiloghi) {
+                if (todos.size() > dimensione) {
+                    break;
+                }
+                ToDo todo = summary.toToDo();
+                if (dopo == null || dopo.precede(todo)) {
+                    todos.add(todo);
+                }
+            }
+        } else {
+            // Un ToDo in più del necessario indica se esiste una pagina successiva.
+            List<ToDoSummary> summaries = toDoDAO.getToDoSummaryPage(boardId, dopo, dimensione + 1);
+            if (summaries == null) {
+                return new PaginaToDo(todos, null);
+            }
+            for (ToDoSummary summary : summaries) {
+                todos.add(summary.toToDo());
+            }
+        }
+        PaginaToDo.Cursore prossima = null;
+        if (todos.size() > dimensione) {
+            todos.remove(dimensione);
+            prossima = PaginaToDo.Cursore.dopo(todos.get(dimensione - 1));
+        }
+        return new PaginaToDo(todos, prossima);
+    }
+
+    /**
+     * Completa un ToDo caricato come riepilogo con descrizione, URL, immagine e utente creatore.
+     * Se il ToDo è già completo non interroga il database.
+     * @param todo Il ToDo da completare.
+     * @return true se il ToDo è completo al termine della chiamata.
+     */
+    public boolean caricaDettagli(ToDo todo) {
+        if (todo.isDettagliCaricati()) {
+            return true;
+        }
+        return toDoDAO.loadToDoDetails(todo);
+    }
+
+    /**
+     * Svuota la cache dei ToDo di tutte le bacheche, ad esempio dopo modifiche fatte direttamente sul database.
+     */
+    public void invalidaCacheToDo() {
+        versioniBacheche.values().forEach(AtomicLong::incrementAndGet);
+        snapshotToDo.clear();
+    }
+
+    /**
+     * Salva in cache la lista letta di una bacheca, a meno che in cache non ci sia già una lista più recente.
+     * Le bacheche che mostrano ToDo condivisi da altri utenti non vengono messe in cache: quei ToDo possono essere
+     * modificati dal proprietario da un altro client, e la versione della bacheca cambia solo per le scritture locali.
+     * @param boardId L'ID della bacheca.
+     * @param snapshot La lista letta, con la versione della bacheca prima della lettura.
+     */
+    private void salvaSnapshot(int boardId, SnapshotToDo snapshot) {
+        if (snapshot.contieneCondivisi()) {
+            return;
+        }
+        snapshotToDo.merge(boardId, snapshot,
+                (attuale, nuovo) -> nuovo.versione >= attuale.versione ? nuovo : attuale);
+    }
+
+    /**
+     * Restituisce il contatore di versione di una bacheca, creandolo se non esiste.
+     */
+    private AtomicLong versioneBacheca(int boardId) {
+        return versioniBacheche.computeIfAbsent(boardId, id -> new AtomicLong());
+    }
+
+    /**
+     * Segna come obsoleti i ToDo in cache di una bacheca, incrementandone la versione.
+     * @param boardId L'ID della bacheca modificata.
+     */
+    private void invalidaBacheca(int boardId) {
+        versioneBacheca(boardId).incrementAndGet();
+        snapshotToDo.remove(boardId);
+    }
+
+    /**
+     * Segna come obsoleta la bacheca del ToDo e ogni altra bacheca in cache che lo contiene,
+     * così anche lo spostamento di un ToDo tra bacheche invalida entrambe.
+     * @param todo Il ToDo modificato.
+     */
+    private void invalidaBachecheDelToDo(ToDo todo) {
+        invalidaBacheca(todo.getIdBoard());
+        snapshotToDo.forEach((boardId, snapshot) -> {
+            if (snapshot.contiene(todo.getId())) {
+                invalidaBacheca(boardId);
+            }
+        });
     }
 
     /**
      * Elimina un ToDo specifico dal sistema.
      * Questo metodo utilizza il ToDoDAO per eseguire l'operazione di eliminazione.
+     * Se il ToDo è stato ricevuto in condivisione viene revocata solo la condivisione.
      * * @param Rappresenta todo Il ToDo da eliminare.
      */
     public void deleteToDo(ToDo todo) {
+        if (todo.isRicevutoInCondivisione()) {
+            // Il destinatario toglie il ToDo dalla sua bacheca: il ToDo del proprietario resta.
+            toDoDAO.revocaCondivisione(todo.getId(), todo.getIdBoardCondivisione());
+            invalidaBacheca(todo.getIdBoardCondivisione());
+            return;
+        }
         toDoDAO.deleteToDo(todo.getId());
+        invalidaBachecheDelToDo(todo);
+    }
+
+    /**
+     * Recupera i ToDo condivisi con un utente da altri utenti.
+     * @param idUtente L'ID dell'utente destinatario.
+     * @return I ToDo condivisi con l'utente, ciascuno con la bacheca in cui compare.
+     */
+    public List<ToDo> getToDosCondivisiCon(int idUtente) {
+        return toDoDAO.getToDosCondivisiCon(idUtente);
     }
 
     /**
      * Condivide un ToDo con un altro utente in una bacheca specifica.
-     * Questo metodo verifica se l'utente destinatario esiste e se la bacheca di destinazione è già presente.
-     * Se la bacheca non esiste, viene creata una nuova bacheca per il destinatario.
-     * Se un ToDo con lo stesso titolo e creato dallo stesso utente esiste già nella bacheca del destinatario, non viene creato un duplicato.
+     * La condivisione è un'unica istruzione eseguita dal database: trova il destinatario, usa la sua bacheca
+     * con lo stesso nome o la crea, e registra la condivisione. Il ToDo non viene copiato: il destinatario vede
+     * l'originale, quindi ogni modifica è visibile a tutti. Ripetere la condivisione non ha effetto.
      * @param todo Il ToDo da condividere.
      * @param boardNameOriginal il nome della bacheca originale in cui il ToDo è stato creato.
      * @param destinatarioUsername il nome utente del destinatario con cui condividere il ToDo.
+     * @return l'esito della condivisione.
      */
-    public void condividiToDo(ToDo todo, String boardNameOriginal, String destinatarioUsername) {
-        Utente utenteDestinatario = utenteDAO.getUtenteByUsername(destinatarioUsername);
-        if (utenteDestinatario == null) {
-            logger.severe("Utente destinatario non trovato");
-            return;
-        }
-
-        List<Board> boardsDestinatario = boardDAO.getBoardsByUsername(destinatarioUsername);
-        if (boardsDestinatario == null) {
-            boardsDestinatario = new ArrayList<>();
-        }
-
-        /**
-         * Controlla se la bacheca del destinatario esiste già.
-         */
-        Board bachecaDestinatario = null;
-        for (Board br : boardsDestinatario) {
-            if (br.getTitolo().equalsIgnoreCase(boardNameOriginal)) {
-                bachecaDestinatario = br;
+    public EsitoCondivisione condividiToDo(ToDo todo, String boardNameOriginal, String destinatarioUsername) {
+        EsitoCondivisione esito = toDoDAO.condividiToDo(todo.getId(), boardNameOriginal, destinatarioUsername);
+        switch (esito) {
+            case CREATO:
+                // La bacheca del destinatario non è nota qui: se è in cache va ricaricata.
+                invalidaCacheToDo();
+                logger.info("ToDo '" + todo.getTitolo() + "' condiviso con '" + destinatarioUsername + "' nella bacheca '" + boardNameOriginal + "'.");
                 break;
-            }
-        }
-        if (bachecaDestinatario == null) {
-            bachecaDestinatario = new Board(0, boardNameOriginal, utenteDestinatario.getId());
-            bachecaDestinatario.setUsername(destinatarioUsername);
-            boardDAO.addBoard(bachecaDestinatario);
-            bachecaDestinatario = boardDAO.getBoardByTitoloAndUtente(boardNameOriginal, utenteDestinatario.getId());
-            if (bachecaDestinatario == null) {
-             logger.severe("Errore nel recupero della bacheca destinatario appena creata.");
-                return;
-            }
-        }
-
-
-        /**
-         * Controlla se un ToDo con lo stesso titolo e creato dallo stesso utente esiste già nella bacheca del destinatario.
-         */
-        List<ToDo> todosDestinatario = toDoDAO.getToDosByBoardId(bachecaDestinatario.getId());
-        boolean alreadyExists = false;
-        for (ToDo existingTodo : todosDestinatario) {
-            if (existingTodo.getTitolo().equals(todo.getTitolo()) &&
-                    existingTodo.getSharedByUsername() != null &&
-                    existingTodo.getSharedByUsername().equals(todo.getUtenteCreatore().getUsername())) {
-                alreadyExists = true;
+            case GIA_PRESENTE:
+                logger.info("ToDo '" + todo.getTitolo() + "' già esistente nella bacheca '" + boardNameOriginal + "' dell'utente '" + destinatarioUsername + "'.");
+                break;
+            case DESTINATARIO_NON_TROVATO:
+                logger.severe("Utente destinatario non trovato");
+                break;
+            case TODO_NON_TROVATO:
+                logger.severe("ToDo da condividere non trovato: " + todo.getId());
+                break;
+            default:
                 break;
-            }
         }
+        return esito;
+    }
 
-        if (!alreadyExists) {
-            ToDo sharedToDo = new ToDo(
-                    todo.getTitolo(),
-                    todo.getDescrizione(),
-                    utenteDestinatario, // The recipient is the new creator
-                    todo.getScadenza(),
-                    todo.getColore()
-            );
-            sharedToDo.setStato(todo.getStato());
-            sharedToDo.setUrl(todo.getUrl());
-            sharedToDo.setImg(todo.getImg());
-            sharedToDo.setPosizione(todo.getPosizione());
-            sharedToDo.setSharedByUsername(todo.getUtenteCreatore().getUsername());
-            sharedToDo.setIdUtente(utenteDestinatario.getId()); // Recipient's user ID
-            sharedToDo.setIdBoard(bachecaDestinatario.getId()); // Destination board ID
-            toDoDAO.addToDo(sharedToDo);
-         logger.info("ToDo '" + todo.getTitolo() + "' condiviso con '" + destinatarioUsername + "' nella bacheca '" + boardNameOriginal + "'.");
-        } else {
-         logger.info("ToDo '" + todo.getTitolo() + "' già esistente nella bacheca '" + boardNameOriginal + "' dell'utente '" + destinatarioUsername + "'.");
+
+    /**
+     * Condivide più ToDo con più utenti in un'unica operazione.
+     * I destinatari vengono cercati con una sola query, le bacheche mancanti create con una sola istruzione
+     * e tutte le condivisioni registrate insieme, nella stessa transazione; ogni ToDo finisce nella bacheca del destinatario
+     * con lo stesso nome della sua bacheca. Le condivisioni già presenti non vengono duplicate.
+     * @param idToDos gli ID dei ToDo da condividere.
+     * @param destinatari i nomi utente dei destinatari.
+     * @return l'esito per ogni destinatario.
+     */
+    public Map<String, EsitoCondivisione> condividiToDos(Collection<Integer> idToDos, Collection<String> destinatari) {
+        Map<String, EsitoCondivisione> esiti = toDoDAO.condividiToDos(idToDos, destinatari);
+        if (esiti.containsValue(EsitoCondivisione.CREATO)) {
+            invalidaCacheToDo();
         }
+        logger.info("Condivisione di " + idToDos.size() + " ToDo con " + destinatari.size() + " utenti: " + esiti);
+        return esiti;
     }
 
-
     /**
      * Recupera tutte le bacheche (Board) presenti nel sistema.
      * Questo metodo utilizza il BoardDAO per ottenere la lista di tutte le bacheche.
@@ -171,26 +304,30 @@ public class BoardManager {
 
     /**
      * Aggiorna una bacheca (Board) esistente nel sistema.
-     * Questo metodo utilizza il BoardDAO per eseguire l'operazione di aggiornamento.
+     * Questo metodo utilizza il BoardDAO per eseguire l'operazione di aggiornamento,
+     * che riesce solo se la bacheca non è stata modificata da altri dopo la lettura.
      * * @param board La bacheca da aggiornare.
+     * @return L'esito dell'aggiornamento; in caso di conflitto contiene la bacheca attuale.
      */
-    public void updateBoard(Board board) {
-        boardDAO.updateBoard(board);
+    public RisultatoAggiornamento<Board> updateBoard(Board board) {
+        return boardDAO.updateBoard(board);
     }
 
     /**
      * Elimina una bacheca (Board) e tutti i ToDo associati ad essa.
-     * Questo metodo prima elimina tutti i ToDo associati alla bacheca e poi elimina la bacheca stessa.
+     * L'eliminazione avviene in un'unica transazione, con un'istruzione per tabella.
      * @param id L'ID della bacheca da eliminare.
+     * @return Il numero di bacheche e di ToDo eliminati, o null se l'eliminazione non è riuscita e nulla è stato eliminato.
      */
-    public void deleteBoard(int id) {
-        List<ToDo> todosToDelete = toDoDAO.getToDosByBoardId(id);
-        if (todosToDelete != null) {
-            for (ToDo todo : todosToDelete) {
-                toDoDAO.deleteToDo(todo.getId());
-            }
+    public RisultatoEliminazione deleteBoard(int id) {
+        RisultatoEliminazione risultato = boardDAO.deleteBoardCascade(id);
+        if (risultato == null) {
+            logger.warning("Eliminazione della bacheca " + id + " non riuscita");
+            return null;
         }
-        boardDAO.deleteBoard(id);
+        invalidaBacheca(id);
+        logger.info("Eliminazione bacheca " + id + ": " + risultato);
+        return risultato;
     }
 
     /**
@@ -225,32 +362,167 @@ public class BoardManager {
         return boardDAO.getBoardsByUsername(username);
     }
 
-    public void updateToDo(ToDo todo) {
-        toDoDAO.updateToDo(todo);
+    /**
+     * Aggiorna un ToDo esistente e invalida i ToDo in cache delle bacheche coinvolte.
+     * Vengono scritti solo i campi modificati; se il ToDo non è cambiato non si accede al database.
+     * Se un altro utente ha modificato il ToDo nel frattempo, le modifiche vengono unite alla versione attuale
+     * e il salvataggio viene ripetuto una volta; se le modifiche riguardano gli stessi campi il conflitto
+     * viene restituito al chiamante.
+     * @param todo Il ToDo con i dati aggiornati.
+     * @return L'esito dell'aggiornamento; in caso di conflitto contiene il ToDo attuale.
+     */
+    public RisultatoAggiornamento<ToDo> updateToDo(ToDo todo) {
+        if (!todo.isModificato()) {
+            return RisultatoAggiornamento.di(RisultatoAggiornamento.Esito.NESSUNA_MODIFICA);
+        }
+        RisultatoAggiornamento<ToDo> risultato = toDoDAO.updateToDo(todo);
+        if (risultato.isConflitto() && todo.ribasaSu(risultato.getAttuale())) {
+            logger.info("Modifiche al ToDo " + todo.getId() + " unite alla versione " + todo.getVersione() + ", nuovo tentativo");
+            risultato = todo.isModificato()
+                    ? toDoDAO.updateToDo(todo)
+                    : RisultatoAggiornamento.di(RisultatoAggiornamento.Esito.NESSUNA_MODIFICA);
+        }
+        invalidaBachecheDelToDo(todo);
+        return risultato;
     }
 
+    /**
+     * Segna come completati tutti i ToDo di una bacheca; i ToDo condivisi in essa da altri utenti non vengono modificati.
+     * I ToDo completati possono essere condivisi e comparire nelle bacheche dei destinatari,
+     * quindi viene invalidata la cache dei ToDo di tutte le bacheche.
+     * @param boardId L'ID della bacheca da completare.
+     */
     public void markAllToDosAsCompletedByBoardId(int boardId) {
         toDoDAO.markAllToDosAsCompletedByBoardId(boardId);
+        invalidaCacheToDo();
     }
 
     /**
      * Elimina tutte le bacheche (Board) associate a un utente specifico in base al suo ID.
-     * Questo metodo elimina prima tutti i ToDo associati a ciascuna bacheca e poi elimina le bacheche stesse.
+     * L'eliminazione di bacheche e ToDo avviene in un'unica transazione, con un'istruzione per tabella,
+     * senza caricare in memoria le bacheche o i ToDo.
      * @param userId L'ID dell'utente di cui eliminare tutte le bacheche.
+     * @return Il numero di bacheche e di ToDo eliminati, o null se l'eliminazione non è riuscita e nulla è stato eliminato.
      */
-    public void deleteAllBoardsByUserId(int userId) {
-        List<Board> userBoards = boardDAO.getBoardsByBachecaId(userId);
-        if (userBoards != null) {
-            for (Board board : userBoards) {
-                List<ToDo> todos = toDoDAO.getToDosByBoardId(board.getId());
-                if (todos != null) {
-                    for (ToDo todo : todos) {
-                        toDoDAO.deleteToDo(todo.getId());
-                    }
-                }
-                boardDAO.deleteBoard(board.getId());
+    public RisultatoEliminazione deleteAllBoardsByUserId(int userId) {
+        RisultatoEliminazione risultato = boardDAO.deleteAllBoardsCascadeByUserId(userId);
+        if (risultato == null) {
+            logger.warning("Eliminazione delle bacheche dell'utente " + userId + " non riuscita");
+            return null;
+        }
+        invalidaCacheToDo();
+        logger.info("Eliminazione bacheche dell'utente " + userId + ": " + risultato);
+        return risultato;
+    }
+
+    /**
+     * Carica la dashboard di un utente: tutte le sue bacheche con la prima pagina dei relativi ToDo già presente in Board.getTodos().
+     * I ToDo sono caricati come riepilogo, come in getToDosForBoard, e ordinati come in getPaginaToDo:
+     * se una bacheca ha DIMENSIONE_PAGINA ToDo, le pagine successive si leggono con getPaginaToDo
+     * partendo dal cursore dell'ultimo ToDo.
+     * Le bacheche con una lista di ToDo aggiornata in cache vengono servite dalla cache; i ToDo delle altre
+     * sono letti con un'unica interrogazione, indipendentemente dal numero di bacheche,
+     * e la cache delle bacheche lette per intero viene aggiornata così i successivi refresh non interrogano il database.
+     * Se la lettura fallisce, le bacheche non in cache restano senza ToDo e non vengono salvate in cache.
+     * @param username Il nome dell'utente di cui caricare la dashboard.
+     * @return Le bacheche dell'utente con i ToDo popolati.
+     */
+    public List<Board> loadDashboard(String username) {
+        List<Board> boards = boardDAO.getBoardsByUsername(username);
+        if (boards == null || boards.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, Board> daLeggere = new HashMap<>();
+        Map<Integer, Long> versioni = new HashMap<>();
+        Map<Integer, List<ToDoSummary>> letti = new HashMap<>();
+        for (Board board : boards) {
+            long versione = versioneBacheca(board.getId()).get();
+            SnapshotToDo snapshot = snapshotToDo.get(board.getId());
+            if (snapshot != null && snapshot.versione == versione) {
+                board.getTodos().addAll(snapshot.toToDos(DIMENSIONE_PAGINA));
+            } else {
+                daLeggere.put(board.getId(), board);
+                versioni.put(board.getId(), versione);
+                letti.put(board.getId(), new ArrayList<>());
             }
         }
+        boolean riuscita = toDoDAO.forEachToDoSummaryByBoardIds(daLeggere.keySet(), DIMENSIONE_PAGINA, summary -> {
+            Board board = daLeggere.get(summary.getIdBoardVisualizzata());
+            if (board != null) {
+                board.getTodos().add(summary.toToDo());
+                letti.get(board.getId()).add(summary);
+            }
+        });
+        if (!riuscita) {
+            return boards;
+        }
+        letti.forEach((boardId, summaries) -> {
+            if (summaries.size() >= DIMENSIONE_PAGINA) {
+                return; // bacheca letta solo in parte: la cache contiene solo liste complete
+            }
+            salvaSnapshot(boardId, new SnapshotToDo(versioni.get(boardId), summaries));
+        });
+        return boards;
+    }
+
+    /**
+     * Esporta tutti i ToDo del sistema in un file CSV, ad esempio per backup o report amministrativi.
+     * I ToDo vengono letti dal database come stream e scritti uno alla volta, quindi la memoria usata
+     * non dipende dal numero di ToDo esportati.
+     * @param percorsoFile Il percorso del file CSV da creare o sovrascrivere.
+     * @return Il numero di ToDo esportati, o -1 se l'esportazione non è riuscita.
+     */
+    public long esportaToDoCsv(String percorsoFile) {
+        long esportati = 0;
+        try (Stream<ToDo> todos = toDoDAO.streamAllToDos();
+             PrintWriter out = new PrintWriter(new FileWriter(percorsoFile, StandardCharsets.UTF_8))) {
+            out.println("id,titolo,descrizione,scadenza,colore,stato,url,img,posizione,id_utente,condiviso_da_utente,id_board");
+            Iterator<ToDo> iterator = todos.iterator();
+            while (iterator.hasNext()) {
+                out.println(rigaCsv(iterator.next()));
+                esportati++;
+            }
+            if (out.checkError()) {
+                throw new IOException("Errore di scrittura su " + percorsoFile);
+            }
+        } catch (IOException | IllegalStateException e) {
+            logger.log(Level.SEVERE, "Esportazione dei ToDo non riuscita: " + e.getMessage(), e);
+            return -1;
+        }
+        logger.info("Esportati " + esportati + " ToDo in " + percorsoFile);
+        return esportati;
+    }
+
+    /**
+     * Converte un ToDo in una riga CSV, con le colonne nello stesso ordine dell'intestazione di esportaToDoCsv.
+     */
+    private static String rigaCsv(ToDo todo) {
+        return String.join(",",
+                String.valueOf(todo.getId()),
+                campoCsv(todo.getTitolo()),
+                campoCsv(todo.getDescrizione()),
+                todo.getScadenza() != null ? new java.sql.Date(todo.getScadenza().getTime()).toString() : "",
+                campoCsv(todo.getColore()),
+                todo.getStato() != null ? todo.getStato().name() : "",
+                campoCsv(todo.getUrl()),
+                campoCsv(todo.getImg()),
+                String.valueOf(todo.getPosizione()),
+                String.valueOf(todo.getIdUtente()),
+                campoCsv(todo.getSharedByUsername()),
+                String.valueOf(todo.getIdBoard()));
+    }
+
+    /**
+     * Racchiude un campo di testo tra virgolette se contiene separatori, virgolette o a capo, raddoppiando le virgolette interne.
+     */
+    private static String campoCsv(String valore) {
+        if (valore == null) {
+            return "";
+        }
+        if (valore.indexOf(',') < 0 && valore.indexOf('"') < 0 && valore.indexOf('\n') < 0 && valore.indexOf('\r') < 0) {
+            return valore;
+        }
+        return '"' + valore.replace("\"", "\"\"") + '"';
     }
 
     /**
@@ -267,4 +539,52 @@ public class BoardManager {
         return boardDAO.getBoardById(idBoard);
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Lista dei riepiloghi dei ToDo di una bacheca letta dal database, con la versione della bacheca al momento della lettura.
+     */
+    private static final class SnapshotToDo {
+        private final long versione;
+        private final List<ToDoSummary> riepiloghi;
+
+        private SnapshotToDo(long versione, List<ToDoSummary> riepiloghi) {
+            this.versione = versione;
+            this.riepiloghi = List.copyOf(riepiloghi);
+        }
+
+        /**
+         * Crea ToDo nuovi dai primi riepiloghi, al più limite.
+         */
+        private List<ToDo> toToDos(int limite) {
+            List<ToDo> todos = new ArrayList<>();
+            for (ToDoSummary summary : riepiloghi) {
+                if (todos.size() >= limite) {
+                    break;
+                }
+                todos.add(summary.toToDo());
+            }
+            return todos;
+        }
+
+        /**
+         * Indica se la lista comprende ToDo condivisi nella bacheca tramite todo_share.
+         */
+        private boolean contieneCondivisi() {
+            for (ToDoSummary summary : riepiloghi) {
+                if (summary.getIdBoardVisualizzata() != summary.getIdBoard()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean contiene(int idToDo) {
+            for (ToDoSummary summary : riepiloghi) {
+                if (summary.getId() == idToDo) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package model;
+
+/**
+ * Enum per indicare i campi di un ToDo salvati nel database.
+ * Viene usato per tenere traccia dei campi modificati dopo il caricamento,
+ * così l'aggiornamento scrive solo le colonne cambiate.
+ */
+public enum CampoToDo {
+    TITOLO,
+    DESCRIZIONE,
+    SCADENZA,
+    COLORE,
+    STATO,
+    URL,
+    IMG,
+    POSIZIONE,
+    ID_UTENTE,
+    CONDIVISO_DA_UTENTE,
+    ID_BOARD
+}
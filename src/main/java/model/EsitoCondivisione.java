@@ -0,0 +1,17 @@
+package model;
+
+/**
+ * Possibili esiti della condivisione di un ToDo con un utente.
+ */
+public enum EsitoCondivisione {
+    /** Il ToDo è stato condiviso e ora compare nella bacheca del destinatario. */
+    CREATO,
+    /** Il ToDo era già condiviso con il destinatario, o ne è il proprietario: nulla è stato scritto. */
+    GIA_PRESENTE,
+    /** Non esiste un utente con il nome indicato. */
+    DESTINATARIO_NON_TROVATO,
+    /** Il ToDo da condividere non esiste più. */
+    TODO_NON_TROVATO,
+    /** La condivisione non è riuscita per un errore del database. */
+    ERRORE
+}
@@ -5,23 +5,23 @@ import gui.*;
 import controller.Controller;
 import dao.*;
 import dao.postgresimpl.*;
+import database.ConnectionPool;
 import database.DBConnection;
 import javax.swing.*;
-import java.sql.Connection;
 import java.util.logging.Logger;
 public class Main {
     private static final Logger LOGGER = Logger.getLogger(Main.class.getName());
     public static void main(String[] args) {
 
-        Connection connection = DBConnection.getConnection();
-        if (connection == null) {
+        ConnectionPool pool = DBConnection.getPool();
+        if (pool == null) {
          LOGGER.severe("Impossibile avviare l'applicazione: connessione al database fallita.");
             System.exit(1);
         }
         SwingUtilities.invokeLater(() -> {
-            UtenteDAO utenteDAO = new PostgresUtenteDAO(connection);
-            ToDoDAO toDoDAO = new PostgresToDoDAO(connection, utenteDAO);
-            BoardDAO boardDAO = new PostgresBoardDAO(connection);
+            UtenteDAO utenteDAO = new CachingUtenteDAO(new PostgresUtenteDAO(pool));
+            ToDoDAO toDoDAO = new PostgresToDoDAO(pool);
+            BoardDAO boardDAO = new PostgresBoardDAO(pool);
             UtenteManager utenteManager = new UtenteManager(utenteDAO) {
                 @Override
                 public boolean register(String username, String password) {
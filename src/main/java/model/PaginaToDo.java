@@ -0,0 +1,99 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Questa classe rappresenta una pagina di ToDo di una bacheca, ordinati per posizione e ID,
+ * insieme al cursore da cui leggere la pagina successiva.
+ * Le pagine sono lette con la paginazione per chiave (keyset): la pagina successiva parte
+ * dall'ultimo ToDo letto invece che da un offset, quindi costa sempre come la prima
+ * e non salta o ripete ToDo se nel frattempo ne vengono aggiunti o eliminati altri.
+ */
+public class PaginaToDo {
+    private final List<ToDo> todos;
+    private final Cursore prossima;
+
+    /**
+     * Costruttore della pagina.
+     * @param todos i ToDo della pagina, nell'ordine di visualizzazione
+     * @param prossima il cursore della pagina successiva, o null se questa è l'ultima
+     */
+    public PaginaToDo(List<ToDo> todos, Cursore prossima) {
+        this.todos = todos;
+        this.prossima = prossima;
+    }
+
+    /**
+     * Questo metodo restituisce i ToDo della pagina.
+     * @return i ToDo della pagina
+     */
+    public List<ToDo> getTodos() {
+        return todos;
+    }
+
+    /**
+     * Questo metodo restituisce il cursore da passare per leggere la pagina successiva.
+     * @return il cursore della pagina successiva, o null se questa è l'ultima pagina
+     */
+    public Cursore getProssima() {
+        return prossima;
+    }
+
+    /**
+     * Posizione nella lista ordinata per (posizione, id): la pagina successiva contiene i ToDo
+     * che vengono strettamente dopo il ToDo indicato dal cursore.
+     */
+    public static final class Cursore {
+        private final int posizione;
+        private final int id;
+
+        /**
+         * Costruttore del cursore.
+         * @param posizione la posizione dell'ultimo ToDo letto
+         * @param id l'ID dell'ultimo ToDo letto
+         */
+        public Cursore(int posizione, int id) {
+            this.posizione = posizione;
+            this.id = id;
+        }
+
+        /**
+         * Crea il cursore che punta subito dopo un ToDo.
+         * @param todo l'ultimo ToDo letto
+         * @return il cursore successivo al ToDo
+         */
+        public static Cursore dopo(ToDo todo) {
+            return new Cursore(todo.getPosizione(), todo.getId());
+        }
+
+        /**
+         * Questo metodo restituisce la posizione dell'ultimo ToDo letto.
+         * @return la posizione
+         */
+        public int getPosizione() {
+            return posizione;
+        }
+
+        /**
+         * Questo metodo restituisce l'ID dell'ultimo ToDo letto.
+         * @return l'ID
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Indica se un ToDo viene dopo questo cursore nell'ordinamento per (posizione, id).
+         * @param todo il ToDo da confrontare
+         * @return true se il ToDo appartiene alle pagine successive
+         */
+        public boolean precede(ToDo todo) {
+            return todo.getPosizione() > posizione || (todo.getPosizione() == posizione && todo.getId() > id);
+        }
+
+        @Override
+        public String toString() {
+            return posizione + ":" + id;
+        }
+    }
+}
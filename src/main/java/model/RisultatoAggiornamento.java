@@ -0,0 +1,86 @@
+package model;
+
+/**
+ * Questa classe riporta l'esito di un aggiornamento condizionato dalla versione della riga (ToDo o bacheca).
+ * In caso di conflitto contiene la versione attuale dell'oggetto letta dal database,
+ * così il chiamante può unire le proprie modifiche e riprovare senza ricaricare l'intera bacheca.
+ * @param <T> il tipo dell'oggetto aggiornato
+ */
+public class RisultatoAggiornamento<T> {
+
+    /**
+     * Possibili esiti di un aggiornamento.
+     */
+    public enum Esito {
+        /** La riga è stata aggiornata e la versione dell'oggetto incrementata. */
+        AGGIORNATO,
+        /** L'oggetto non aveva modifiche da salvare: nessuna istruzione è stata eseguita. */
+        NESSUNA_MODIFICA,
+        /** La riga è stata modificata da un altro client dopo la lettura: nulla è stato scritto. */
+        CONFLITTO,
+        /** La riga non esiste più nel database. */
+        NON_TROVATO,
+        /** L'aggiornamento non è riuscito per un errore del database. */
+        ERRORE
+    }
+
+    private final Esito esito;
+    private final T attuale;
+
+    /**
+     * Costruttore del risultato.
+     * @param esito l'esito dell'aggiornamento
+     * @param attuale in caso di conflitto l'oggetto come si trova ora nel database, altrimenti null
+     */
+    public RisultatoAggiornamento(Esito esito, T attuale) {
+        this.esito = esito;
+        this.attuale = attuale;
+    }
+
+    /**
+     * Crea il risultato di un aggiornamento senza oggetto attuale.
+     * @param esito l'esito dell'aggiornamento
+     * @param <T> il tipo dell'oggetto aggiornato
+     * @return il risultato
+     */
+    public static <T> RisultatoAggiornamento<T> di(Esito esito) {
+        return new RisultatoAggiornamento<>(esito, null);
+    }
+
+    /**
+     * Questo metodo restituisce l'esito dell'aggiornamento.
+     * @return l'esito
+     */
+    public Esito getEsito() {
+        return esito;
+    }
+
+    /**
+     * Questo metodo restituisce l'oggetto come si trova nel database, in caso di conflitto.
+     * @return l'oggetto attuale, o null se l'esito non è CONFLITTO
+     */
+    public T getAttuale() {
+        return attuale;
+    }
+
+    /**
+     * Indica se le modifiche sono state salvate, o se non c'era nulla da salvare.
+     * @return true se l'esito è AGGIORNATO o NESSUNA_MODIFICA
+     */
+    public boolean isRiuscito() {
+        return esito == Esito.AGGIORNATO || esito == Esito.NESSUNA_MODIFICA;
+    }
+
+    /**
+     * Indica se l'aggiornamento è fallito per una modifica concorrente.
+     * @return true se l'esito è CONFLITTO
+     */
+    public boolean isConflitto() {
+        return esito == Esito.CONFLITTO;
+    }
+
+    @Override
+    public String toString() {
+        return esito.name();
+    }
+}
@@ -0,0 +1,41 @@
+package model;
+
+/**
+ * Questa classe riporta quante righe sono state eliminate da una cancellazione a cascata
+ * di bacheche e dei relativi ToDo.
+ */
+public class RisultatoEliminazione {
+    private final int bachecheEliminate;
+    private final int todoEliminati;
+
+    /**
+     * Costruttore del risultato di una cancellazione.
+     * @param bachecheEliminate il numero di bacheche eliminate
+     * @param todoEliminati il numero di ToDo eliminati
+     */
+    public RisultatoEliminazione(int bachecheEliminate, int todoEliminati) {
+        this.bachecheEliminate = bachecheEliminate;
+        this.todoEliminati = todoEliminati;
+    }
+
+    /**
+     * Questo metodo restituisce il numero di bacheche eliminate.
+     * @return numero di bacheche eliminate
+     */
+    public int getBachecheEliminate() {
+        return bachecheEliminate;
+    }
+
+    /**
+     * Questo metodo restituisce il numero di ToDo eliminati.
+     * @return numero di ToDo eliminati
+     */
+    public int getTodoEliminati() {
+        return todoEliminati;
+    }
+
+    @Override
+    public String toString() {
+        return bachecheEliminate + " bacheche e " + todoEliminati + " ToDo eliminati";
+    }
+}
@@ -3,8 +3,14 @@ package model;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.time.LocalDate;
+import java.time.ZoneId;
 
 /**
  * Le attivita da completare, che possono essere condivise con altri utenti.
@@ -24,6 +30,14 @@ public class ToDo {
     private String condiviso_da_utente;
     private int idUtente;
     private int idBoard;
+    private boolean dettagliCaricati = true;
+    private int versione;
+    private int idBoardCondivisione;
+    /**
+     * Valore originale di ogni campo modificato dopo il caricamento o l'ultimo salvataggio.
+     * Un campo riportato al valore originale non risulta più modificato.
+     */
+    private final Map<CampoToDo, Object> originali = new EnumMap<>(CampoToDo.class);
 
     /**
      * Costruttore della classe ToDo usato per creare nuovi ToDo con i parametri di base.
@@ -155,7 +169,7 @@ public class ToDo {
      * quindi è necessario un metodo setter per poterlo assegnare.
      * @param idUtente id dell'utente che ha creato il ToDo
      */
-    public void setIdUtente(int idUtente) { this.idUtente = idUtente; }
+    public void setIdUtente(int idUtente) { registraModifica(CampoToDo.ID_UTENTE, this.idUtente, idUtente); this.idUtente = idUtente; }
 
     /**
      * Questo metodo restituisce l'id della bacheca a cui il ToDo appartiene.
@@ -171,7 +185,7 @@ public class ToDo {
      * quindi è necessario un metodo setter per poterlo assegnare.
      * @param idBoard id della bacheca a cui il ToDo appartiene
      */
-    public void setIdBoard(int idBoard) { this.idBoard = idBoard; }
+    public void setIdBoard(int idBoard) { registraModifica(CampoToDo.ID_BOARD, this.idBoard, idBoard); this.idBoard = idBoard; }
 
     /**
      * Questo metodo restituisce l'utente che ha condiviso il ToDo.
@@ -190,6 +204,7 @@ public class ToDo {
      *  * @param condiviso_da_utente : nome utente dell'utente che ha condiviso il ToDo
      */
     public void setCondiviso_da_utente(String condiviso_da_utente) {
+        registraModifica(CampoToDo.CONDIVISO_DA_UTENTE, this.condiviso_da_utente, condiviso_da_utente);
         this.condiviso_da_utente = condiviso_da_utente;
     }
 
@@ -206,7 +221,7 @@ public class ToDo {
      * quindi è necessario un metodo setter per poterlo assegnare.
      * @param titolo  IL Titolo del ToDo
      */
-    public void setTitolo(String titolo) { this.titolo = titolo; }
+    public void setTitolo(String titolo) { registraModifica(CampoToDo.TITOLO, this.titolo, titolo); this.titolo = titolo; }
 
 
     /**
@@ -223,7 +238,7 @@ public class ToDo {
      * quindi è necessario un metodo setter per poterlo assegnare.
      @param url URL del ToDo
      */
-    public void setUrl(String url) { this.url = url; }
+    public void setUrl(String url) { registraModifica(CampoToDo.URL, this.url, url); this.url = url; }
 
     /**
      * Questo metodo restituisce la descrizione del ToDo.
@@ -238,7 +253,7 @@ public class ToDo {
      *      *      * quindi è necessario un metodo setter per poterla assegnarw.
      * @param descrizione La descrizione del ToDo
      */
-     public void setDescrizione(String descrizione) { this.descrizione = descrizione; }
+     public void setDescrizione(String descrizione) { registraModifica(CampoToDo.DESCRIZIONE, this.descrizione, descrizione); this.descrizione = descrizione; }
 
     /**
      * Questo metodo restituisce la data di scadenza del ToDo.
@@ -254,7 +269,7 @@ public class ToDo {
      * * quindi è necessario un metodo setter per poterla assegnare.
      * @param scadenza  data di scadenza del ToDo
      */
-    public void setScadenza(Date scadenza) { this.scadenza = scadenza; }
+    public void setScadenza(Date scadenza) { registraModifica(CampoToDo.SCADENZA, this.scadenza, scadenza); this.scadenza = scadenza; }
 
 
    /**
@@ -271,7 +286,7 @@ public class ToDo {
      * quindi è necessario un metodo setter per poterla assegnare.
      * @param img  immagine del ToDo
      */
-    public void setImg(String img) { this.img = img; }
+    public void setImg(String img) { registraModifica(CampoToDo.IMG, this.img, img); this.img = img; }
 
     /**
      * Questo metodo restituisce la posizione del ToDo nella lista.
@@ -287,7 +302,7 @@ public class ToDo {
      * quindi è necessario un metodo setter per poterla assegnare.
      * @param posizione  posizione del ToDo
      */
-    public void setPosizione(int posizione) { this.posizione = posizione; }
+    public void setPosizione(int posizione) { registraModifica(CampoToDo.POSIZIONE, this.posizione, posizione); this.posizione = posizione; }
 
     /**
      * Questo metodo restituisce il colore associato al ToDo.
@@ -303,7 +318,7 @@ public class ToDo {
      * quindi è necessario un metodo setter per poterlo assegnare.
      * @param colore colore del ToDo
      */
-    public void setColore(String colore) { this.colore = colore; }
+    public void setColore(String colore) { registraModifica(CampoToDo.COLORE, this.colore, colore); this.colore = colore; }
 
     /**
      * Questo metodo restituisce lo stato del ToDo.
@@ -319,7 +334,7 @@ public class ToDo {
      * quindi è necessario un metodo setter per poterlo assegnare.
      * @param stato: stato del ToDo
      */
-    public void setStato(StatoToDo stato) { this.stato = stato; }
+    public void setStato(StatoToDo stato) { registraModifica(CampoToDo.STATO, this.stato, stato); this.stato = stato; }
 
     /**
      * Questo metodo restituisce la lista degli utenti con cui il ToDo è condiviso.
@@ -373,6 +388,19 @@ public class ToDo {
         utentiCondivisi.remove(u);
     }
 
+    /**
+     * Questo metodo indica se descrizione, URL, immagine e utente creatore del ToDo sono stati caricati.
+     * E' false per i ToDo creati da un ToDoSummary, che contengono solo i dati mostrati nelle liste.
+     * @return true se il ToDo è completo
+     */
+    public boolean isDettagliCaricati() { return dettagliCaricati; }
+
+    /**
+     * Questo metodo imposta se descrizione, URL, immagine e utente creatore del ToDo sono stati caricati.
+     * @param dettagliCaricati true se il ToDo è completo
+     */
+    public void setDettagliCaricati(boolean dettagliCaricati) { this.dettagliCaricati = dettagliCaricati; }
+
 /**
      * Questo metodo imposta il nome utente di chi ha condiviso il ToDo.
      * E' necessario poichè, essendo il nome utente un campo privato, non è accessibile direttamente con il semplice costruttore,
@@ -380,6 +408,7 @@ public class ToDo {
      * @param sharedByUsername nome utente di chi ha condiviso il ToDo
      */
     public void setSharedByUsername(String sharedByUsername) {
+        registraModifica(CampoToDo.CONDIVISO_DA_UTENTE, this.condiviso_da_utente, sharedByUsername);
         this.condiviso_da_utente = sharedByUsername;
     }
 
@@ -400,7 +429,188 @@ public class ToDo {
      */
     public void setBoard(Board bachecaDestinatario) {
         if (bachecaDestinatario != null) {
+            registraModifica(CampoToDo.ID_BOARD, this.idBoard, bachecaDestinatario.getId());
             this.idBoard = bachecaDestinatario.getId();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Questo metodo restituisce la versione della riga del ToDo letta dal database.
+     * Viene incrementata dal database a ogni aggiornamento e usata per riconoscere le modifiche concorrenti.
+     * @return versione del ToDo
+     */
+    public int getVersione() { return versione; }
+
+    /**
+     * Questo metodo imposta la versione della riga del ToDo, letta dal database o restituita da un aggiornamento.
+     * @param versione versione del ToDo
+     */
+    public void setVersione(int versione) { this.versione = versione; }
+
+    /**
+     * Questo metodo restituisce la bacheca in cui il ToDo compare perché condiviso con l'utente che la possiede.
+     * @return l'ID della bacheca del destinatario, o 0 se il ToDo è nella bacheca del proprietario
+     */
+    public int getIdBoardCondivisione() { return idBoardCondivisione; }
+
+    /**
+     * Questo metodo imposta la bacheca in cui il ToDo compare per condivisione. Non è un campo del ToDo
+     * ma della condivisione, quindi non viene registrato come modifica.
+     * @param idBoardCondivisione l'ID della bacheca del destinatario, o 0
+     */
+    public void setIdBoardCondivisione(int idBoardCondivisione) { this.idBoardCondivisione = idBoardCondivisione; }
+
+    /**
+     * Indica se il ToDo è stato ricevuto in condivisione: è lo stesso ToDo del proprietario, non una copia,
+     * quindi le modifiche sono visibili a tutti, ma eliminarlo revoca solo la condivisione.
+     * @return true se il ToDo compare in una bacheca per condivisione
+     */
+    public boolean isRicevutoInCondivisione() { return idBoardCondivisione > 0; }
+
+    /**
+     * Questo metodo restituisce la bacheca in cui il ToDo viene mostrato: quella del destinatario
+     * se è stato ricevuto in condivisione, altrimenti la sua.
+     * @return l'ID della bacheca in cui il ToDo compare
+     */
+    public int getIdBoardVisualizzata() { return idBoardCondivisione > 0 ? idBoardCondivisione : idBoard; }
+
+    /**
+     * Unisce le modifiche non salvate di questo ToDo con la versione attuale letta dal database dopo un conflitto.
+     * Per ogni campo modificato qui, se nel database il campo ha ancora il valore originale (o già lo stesso nuovo valore)
+     * la modifica viene mantenuta; se un altro client lo ha cambiato in modo diverso le modifiche sono in conflitto
+     * e il ToDo non viene toccato.
+     * Se l'unione riesce, i campi non modificati qui prendono i valori attuali, la versione diventa quella attuale
+     * e le modifiche restano da salvare.
+     * @param attuale il ToDo come si trova ora nel database
+     * @return true se le modifiche sono state unite e si può riprovare il salvataggio
+     */
+    public boolean ribasaSu(ToDo attuale) {
+        for (Map.Entry<CampoToDo, Object> modifica : originali.entrySet()) {
+            Object remoto = attuale.getValore(modifica.getKey());
+            if (!stessoValore(remoto, modifica.getValue()) && !stessoValore(remoto, getValore(modifica.getKey()))) {
+                return false;
+            }
+        }
+        for (CampoToDo campo : CampoToDo.values()) {
+            if (originali.containsKey(campo)) {
+                originali.put(campo, attuale.getValore(campo));
+            } else {
+                impostaValore(campo, attuale.getValore(campo));
+            }
+        }
+        originali.entrySet().removeIf(modifica -> stessoValore(modifica.getValue(), getValore(modifica.getKey())));
+        if (utenteCreatore == null) {
+            utenteCreatore = attuale.utenteCreatore;
+        }
+        dettagliCaricati = true;
+        versione = attuale.versione;
+        return true;
+    }
+
+    /**
+     * Restituisce il valore di un campo salvato nel database.
+     */
+    private Object getValore(CampoToDo campo) {
+        switch (campo) {
+            case TITOLO: return titolo;
+            case DESCRIZIONE: return descrizione;
+            case SCADENZA: return scadenza;
+            case COLORE: return colore;
+            case STATO: return stato;
+            case URL: return url;
+            case IMG: return img;
+            case POSIZIONE: return posizione;
+            case ID_UTENTE: return idUtente;
+            case CONDIVISO_DA_UTENTE: return condiviso_da_utente;
+            case ID_BOARD: return idBoard;
+            default: throw new IllegalArgumentException("Campo non gestito: " + campo);
+        }
+    }
+
+    /**
+     * Imposta il valore di un campo senza registrarlo come modifica.
+     */
+    private void impostaValore(CampoToDo campo, Object valore) {
+        switch (campo) {
+            case TITOLO: titolo = (String) valore; break;
+            case DESCRIZIONE: descrizione = (String) valore; break;
+            case SCADENZA: scadenza = (Date) valore; break;
+            case COLORE: colore = (String) valore; break;
+            case STATO: stato = (StatoToDo) valore; break;
+            case URL: url = (String) valore; break;
+            case IMG: img = (String) valore; break;
+            case POSIZIONE: posizione = (Integer) valore; break;
+            case ID_UTENTE: idUtente = (Integer) valore; break;
+            case CONDIVISO_DA_UTENTE: condiviso_da_utente = (String) valore; break;
+            case ID_BOARD: idBoard = (Integer) valore; break;
+            default: throw new IllegalArgumentException("Campo non gestito: " + campo);
+        }
+    }
+
+    /**
+     * Registra la modifica di un campo, conservandone il valore originale alla prima modifica.
+     * Se il nuovo valore coincide con l'originale il campo torna a risultare non modificato.
+     */
+    private void registraModifica(CampoToDo campo, Object attuale, Object nuovo) {
+        if (!originali.containsKey(campo)) {
+            if (!stessoValore(attuale, nuovo)) {
+                originali.put(campo, attuale);
+            }
+        } else if (stessoValore(originali.get(campo), nuovo)) {
+            originali.remove(campo);
+        }
+    }
+
+    /**
+     * Confronta due valori di un campo. Le date vengono confrontate come giorni: la scadenza impostata
+     * dall'interfaccia è un java.util.Date con un orario, quella letta dal database un java.sql.Date,
+     * e lo stesso giorno non deve risultare una modifica o un conflitto.
+     */
+    private static boolean stessoValore(Object a, Object b) {
+        if (a instanceof Date && b instanceof Date) {
+            return giorno((Date) a).equals(giorno((Date) b));
+        }
+        return Objects.equals(a, b);
+    }
+
+    /**
+     * Restituisce il giorno di una data nel fuso orario locale, sia per java.util.Date sia per java.sql.Date.
+     */
+    private static LocalDate giorno(Date data) {
+        if (data instanceof java.sql.Date) {
+            return ((java.sql.Date) data).toLocalDate();
+        }
+        return data.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    /**
+     * Questo metodo restituisce i campi modificati dopo il caricamento dal database o l'ultimo salvataggio.
+     * @return una copia dell'insieme dei campi modificati, vuoto se il ToDo non è cambiato
+     */
+    public Set<CampoToDo> getCampiModificati() {
+        return originali.isEmpty() ? EnumSet.noneOf(CampoToDo.class) : EnumSet.copyOf(originali.keySet());
+    }
+
+    /**
+     * Questo metodo indica se il ToDo ha campi modificati non ancora salvati.
+     * @return true se almeno un campo è stato modificato
+     */
+    public boolean isModificato() {
+        return !originali.isEmpty();
+    }
+
+    /**
+     * Segna tutti i campi come salvati: va chiamato dopo il caricamento o dopo un salvataggio riuscito.
+     */
+    public void pulisciCampiModificati() {
+        originali.clear();
+    }
+
+    /**
+     * Segna come salvati solo alcuni campi, ad esempio quelli appena letti dal database.
+     * @param campi i campi da segnare come salvati
+     */
+    public void pulisciCampiModificati(Set<CampoToDo> campi) {
+        originali.keySet().removeAll(campi);
+    }
+}
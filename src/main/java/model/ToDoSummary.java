@@ -0,0 +1,133 @@
+// src/model/ToDoSummary.java
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * Versione ridotta di un ToDo, con i soli dati mostrati nelle liste (schede delle bacheche, scelta del ToDo da condividere).
+ * Non contiene descrizione, URL, immagine e utente creatore, che vengono caricati solo quando servono,
+ * ad esempio all'apertura dei dettagli o della modifica.
+ */
+public class ToDoSummary {
+    private final int id;
+    private final String titolo;
+    private final LocalDate scadenza;
+    private final String colore;
+    private final StatoToDo stato;
+    private final int posizione;
+    private final int idUtente;
+    private final String condivisoDaUtente;
+    private final int idBoard;
+    private final int versione;
+    private final int idBoardCondivisione;
+
+    /**
+     * Costruttore del riepilogo di un ToDo.
+     * @param id L'ID del ToDo.
+     * @param titolo Il titolo del ToDo.
+     * @param scadenza La data di scadenza del ToDo.
+     * @param colore Il colore associato al ToDo.
+     * @param stato Lo stato del ToDo.
+     * @param posizione La posizione del ToDo nella lista.
+     * @param idUtente L'ID dell'utente che ha creato il ToDo.
+     * @param condivisoDaUtente Il nome utente di chi ha condiviso il ToDo.
+     * @param idBoard L'ID della bacheca a cui il ToDo appartiene.
+     * @param versione La versione della riga del ToDo.
+     * @param idBoardCondivisione La bacheca in cui il ToDo compare per condivisione, o 0.
+     */
+    public ToDoSummary(int id, String titolo, LocalDate scadenza, String colore, StatoToDo stato,
+                       int posizione, int idUtente, String condivisoDaUtente, int idBoard, int versione, int idBoardCondivisione) {
+        this.id = id;
+        this.titolo = titolo;
+        this.scadenza = scadenza;
+        this.colore = colore;
+        this.stato = stato;
+        this.posizione = posizione;
+        this.idUtente = idUtente;
+        this.condivisoDaUtente = condivisoDaUtente;
+        this.idBoard = idBoard;
+        this.versione = versione;
+        this.idBoardCondivisione = idBoardCondivisione;
+    }
+
+    /**
+     * Crea un ToDo con i soli dati del riepilogo, segnato come non completamente caricato.
+     * I campi mancanti si caricano con BoardManager.caricaDettagli.
+     * @return il ToDo parziale
+     */
+    public ToDo toToDo() {
+        ToDo todo = new ToDo(id, titolo, null, scadenza, colore, stato.name(), null, null,
+                posizione, idUtente, condivisoDaUtente, idBoard);
+        todo.setDettagliCaricati(false);
+        todo.setVersione(versione);
+        todo.setIdBoardCondivisione(idBoardCondivisione);
+        return todo;
+    }
+
+    /**
+     * Questo metodo restituisce l'id del ToDo.
+     * @return id del ToDo
+     */
+    public int getId() { return id; }
+
+    /**
+     * Questo metodo restituisce il titolo del ToDo.
+     * @return titolo del ToDo
+     */
+    public String getTitolo() { return titolo; }
+
+    /**
+     * Questo metodo restituisce la data di scadenza del ToDo.
+     * @return scadenza del ToDo
+     */
+    public LocalDate getScadenza() { return scadenza; }
+
+    /**
+     * Questo metodo restituisce il colore del ToDo.
+     * @return colore del ToDo
+     */
+    public String getColore() { return colore; }
+
+    /**
+     * Questo metodo restituisce lo stato del ToDo.
+     * @return stato del ToDo
+     */
+    public StatoToDo getStato() { return stato; }
+
+    /**
+     * Questo metodo restituisce la posizione del ToDo nella lista.
+     * @return posizione del ToDo
+     */
+    public int getPosizione() { return posizione; }
+
+    /**
+     * Questo metodo restituisce l'id dell'utente che ha creato il ToDo.
+     * @return id dell'utente creatore
+     */
+    public int getIdUtente() { return idUtente; }
+
+    /**
+     * Questo metodo restituisce il nome utente di chi ha condiviso il ToDo.
+     * @return nome utente di chi ha condiviso il ToDo
+     */
+    public String getCondivisoDaUtente() { return condivisoDaUtente; }
+
+    /**
+     * Questo metodo restituisce l'id della bacheca a cui il ToDo appartiene.
+     * @return id della bacheca
+     */
+    public int getIdBoard() { return idBoard; }
+
+    /**
+     * Questo metodo restituisce la versione della riga del ToDo.
+     * @return versione del ToDo
+     */
+    public int getVersione() { return versione; }
+
+    /**
+     * Questo metodo restituisce la bacheca in cui il ToDo viene mostrato: quella del destinatario
+     * se è stato ricevuto in condivisione, altrimenti la sua.
+     * @return l'ID della bacheca in cui il ToDo compare
+     */
+    public int getIdBoardVisualizzata() { return idBoardCondivisione > 0 ? idBoardCondivisione : idBoard; }
+}
@@ -0,0 +1,14 @@
+-- Indici usati dalle interrogazioni dell'applicazione.
+
+-- Paginazione per chiave dei ToDo di una bacheca: WHERE id_board = ? AND (posizione, id) > (?, ?) ORDER BY posizione, id.
+-- Con questo indice ogni pagina è una scansione di un intervallo, senza ordinamento e senza leggere le pagine precedenti.
+-- Serve anche le altre letture e cancellazioni filtrate per id_board.
+CREATE INDEX IF NOT EXISTS idx_todo_board_posizione_id ON todo (id_board, posizione, id);
+
+-- Ricerca di una bacheca per titolo e utente (WHERE titolo = ? AND id_utente = ?) ed elenco delle bacheche
+-- di un utente (WHERE id_utente = ?). L'indice è univoco perché un utente non può avere due bacheche con lo stesso titolo,
+-- e include l'ID così le bacheche di un utente si leggono dal solo indice.
+CREATE UNIQUE INDEX IF NOT EXISTS uq_board_utente_titolo ON board (id_utente, titolo) INCLUDE (id);
+
+-- Login e ricerca degli utenti per nome (WHERE username = ?): un nome utente identifica un solo utente.
+CREATE UNIQUE INDEX IF NOT EXISTS uq_utente_username ON utente (username);
@@ -0,0 +1,6 @@
+-- Colonne di versione per il controllo ottimistico della concorrenza.
+
+-- Ogni UPDATE incrementa version e modifica la riga solo se la versione è ancora quella letta dal client:
+-- se nessuna riga viene aggiornata, un altro client ha salvato prima e il chiamante riceve un conflitto.
+ALTER TABLE todo ADD COLUMN IF NOT EXISTS version integer NOT NULL DEFAULT 0;
+ALTER TABLE board ADD COLUMN IF NOT EXISTS version integer NOT NULL DEFAULT 0;
@@ -0,0 +1,6 @@
+-- Condivisione idempotente dei ToDo.
+
+-- Nella bacheca del destinatario può esistere una sola copia di un ToDo con lo stesso titolo condiviso dallo stesso utente:
+-- la condivisione inserisce con ON CONFLICT DO NOTHING, quindi ripeterla non crea duplicati.
+-- I ToDo non condivisi hanno condiviso_da_utente NULL e non sono vincolati, perché i NULL sono tutti distinti.
+CREATE UNIQUE INDEX IF NOT EXISTS uq_todo_board_titolo_condiviso ON todo (id_board, titolo, condiviso_da_utente);
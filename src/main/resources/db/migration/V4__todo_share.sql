@@ -0,0 +1,18 @@
+-- Condivisione dei ToDo per riferimento.
+
+-- Una condivisione è una riga che dà al destinatario accesso al ToDo originale, mostrato nella bacheca id_board
+-- del destinatario: il ToDo non viene copiato, quindi le modifiche sono visibili a tutti senza altre scritture.
+-- Eliminare il ToDo, il destinatario o la sua bacheca elimina anche le condivisioni.
+CREATE TABLE IF NOT EXISTS todo_share (
+    id_todo integer NOT NULL REFERENCES todo (id) ON DELETE CASCADE,
+    id_utente integer NOT NULL REFERENCES utente (id) ON DELETE CASCADE,
+    id_board integer NOT NULL REFERENCES board (id) ON DELETE CASCADE,
+    condiviso_il timestamptz NOT NULL DEFAULT now(),
+    PRIMARY KEY (id_todo, id_utente)
+);
+
+-- "Condivisi con me": WHERE id_utente = ?.
+CREATE INDEX IF NOT EXISTS idx_todo_share_utente ON todo_share (id_utente, id_todo);
+
+-- ToDo condivisi in una bacheca, uniti a quelli della bacheca nelle liste e nelle pagine: WHERE id_board = ?.
+CREATE INDEX IF NOT EXISTS idx_todo_share_board ON todo_share (id_board, id_todo);
@@ -0,0 +1,6 @@
+-- Rimozione dell'indice della condivisione per copia.
+
+-- Con todo_share un ToDo condiviso non viene più copiato nella bacheca del destinatario: l'idempotenza della condivisione
+-- è garantita dalla chiave primaria (id_todo, id_utente) di todo_share. L'indice univoco su (id_board, titolo, condiviso_da_utente)
+-- non serve più e impedirebbe di avere nella stessa bacheca due ToDo con lo stesso titolo provenienti dallo stesso utente.
+DROP INDEX IF EXISTS uq_todo_board_titolo_condiviso;